@@ -32,6 +32,7 @@ import com.robotemi.sdk.Robot;
 import com.robotemi.sdk.TtsRequest;
 import com.robotemi.sdk.activitystream.ActivityStreamObject;
 import com.robotemi.sdk.activitystream.ActivityStreamPublishMessage;
+import com.robotemi.sdk.ipc.IpcCallback;
 import com.robotemi.sdk.listeners.OnBeWithMeStatusChangedListener;
 import com.robotemi.sdk.listeners.OnConstraintBeWithStatusChangedListener;
 import com.robotemi.sdk.listeners.OnDetectionStateChangedListener;
@@ -296,7 +297,22 @@ public class MainActivity extends AppCompatActivity implements
      */
     public void savedLocationsDialog(View view) {
         hideKeyboard(MainActivity.this);
-        locations = robot.getLocations();
+        // Fetch the locations off the UI thread, the result is delivered back on it.
+        robot.getLocationsAsync(new IpcCallback<List<String>>() {
+            @Override
+            public void onResult(List<String> result) {
+                showSavedLocationsDialog(result);
+            }
+
+            @Override
+            public void onError(@NonNull Exception error) {
+                Toast.makeText(MainActivity.this, "Failed to get locations: " + error.getMessage(), Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private void showSavedLocationsDialog(List<String> savedLocations) {
+        locations = new ArrayList<>(savedLocations);
         final CustomAdapter customAdapter = new CustomAdapter(MainActivity.this, android.R.layout.simple_selectable_list_item, locations);
         AlertDialog.Builder versionsDialog = new AlertDialog.Builder(MainActivity.this);
         versionsDialog.setTitle("Saved Locations: (Click to delete the location)");
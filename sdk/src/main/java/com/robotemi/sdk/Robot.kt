@@ -13,167 +13,329 @@ import android.util.Log
 import androidx.annotation.RestrictTo
 import androidx.annotation.RestrictTo.Scope.LIBRARY
 import androidx.annotation.UiThread
+import androidx.annotation.VisibleForTesting
 import com.robotemi.sdk.activitystream.ActivityStreamObject
 import com.robotemi.sdk.activitystream.ActivityStreamPublishMessage
 import com.robotemi.sdk.activitystream.ActivityStreamUtils
+import com.robotemi.sdk.constants.CallbackInterest
 import com.robotemi.sdk.constants.SdkConstants
+import com.robotemi.sdk.dispatch.CallbackInterestMask
+import com.robotemi.sdk.dispatch.DeliveryStats
+import com.robotemi.sdk.dispatch.ListenerRegistry
+import com.robotemi.sdk.dispatch.MainThreadExecutor
+import com.robotemi.sdk.flow.FlowOverflow
+import com.robotemi.sdk.flow.listenerFlow
+import com.robotemi.sdk.ipc.IpcCallback
+import com.robotemi.sdk.ipc.IpcWorker
+import com.robotemi.sdk.ipc.JoystickChannel
+import com.robotemi.sdk.ipc.MainThreadIpcDetector
+import com.robotemi.sdk.ipc.MainThreadIpcViolation
+import com.robotemi.sdk.ipc.PagedIterator
+import com.robotemi.sdk.ipc.PagedSource
+import com.robotemi.sdk.ipc.PartialTransferException
+import com.robotemi.sdk.ipc.PendingCommandQueue
+import com.robotemi.sdk.ipc.SingleFlight
 import com.robotemi.sdk.listeners.*
 import com.robotemi.sdk.mediabar.AidlMediaBarController
 import com.robotemi.sdk.mediabar.MediaBarData
 import com.robotemi.sdk.model.CallEventModel
+import com.robotemi.sdk.model.GoToStatusModel
+import com.robotemi.sdk.model.LocationsDiff
 import com.robotemi.sdk.model.RecentCallModel
+import com.robotemi.sdk.model.RobotInfoSnapshot
+import com.robotemi.sdk.motion.LocalMotionScriptRunner
+import com.robotemi.sdk.motion.MotionScript
+import com.robotemi.sdk.navigation.GoToTracker
+import com.robotemi.sdk.navigation.PatrolAbortPolicy
+import com.robotemi.sdk.navigation.PatrolRun
 import com.robotemi.sdk.notification.AlertNotification
 import com.robotemi.sdk.notification.NormalNotification
 import com.robotemi.sdk.notification.NotificationCallback
 import com.robotemi.sdk.permission.Permission
 import com.robotemi.sdk.permission.Result.Companion.DENIED
+import com.robotemi.sdk.state.ContactDirectory
+import com.robotemi.sdk.state.RecentCallStore
+import com.robotemi.sdk.state.RobotStateStore
 import com.robotemi.sdk.telepresence.CallState
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.suspendCancellableCoroutine
+import kotlinx.coroutines.withTimeout
 import java.util.*
-import java.util.concurrent.CopyOnWriteArraySet
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeoutException
+import kotlin.coroutines.resume
+import kotlin.coroutines.resumeWithException
 
 @SuppressWarnings("unused")
-class Robot private constructor(context: Context) {
-
+class Robot @VisibleForTesting internal constructor(
     private val applicationInfo: ApplicationInfo
+) {
+
+    private constructor(context: Context) : this(applicationInfoOf(context))
 
     private val uiHandler = Handler(Looper.getMainLooper())
 
+    private val mainThreadExecutor = MainThreadExecutor(uiHandler)
+
     private var mediaBar = AidlMediaBarController(null)
 
+    @Volatile
     private var mediaButtonListener: MediaButtonListener? = null
 
+    @Volatile
+    private var mediaButtonExecutor: Executor = mainThreadExecutor
+
+    /**
+     * Wrapped by [mainThreadIpcDetector] while it is enabled.
+     */
+    @Volatile
     private var sdkService: ISdkService? = null
 
-    private val listenersMap = HashMap<String, NotificationListener>()
+    private var connectedSdkService: ISdkService? = null
+
+    private var mainThreadIpcDetector: MainThreadIpcDetector? = null
+
+    private class PendingNotification(val listener: NotificationListener, val executor: Executor)
+
+    private val listenersMap = ConcurrentHashMap<String, PendingNotification>()
+
+    private val callbackInterest = CallbackInterestMask { mask -> sendCallbackInterest(mask) }
+
+    private val listenerRegistry = ListenerRegistry(mainThreadExecutor, callbackInterest)
+
+    private val ipcWorker by lazy { IpcWorker() }
+
+    private val singleFlight = SingleFlight()
+
+    @Volatile
+    private var pendingCommands: PendingCommandQueue<PendingCommand>? = null
+
+    private val goToTracker by lazy {
+        callbackInterest.pin(CallbackInterest.GO_TO_LOCATION_STATUS)
+        isGoToTrackerCreated = true
+        GoToTracker()
+    }
+
+    @Volatile
+    private var isGoToTrackerCreated = false
+
+    private val localMotionScriptRunner by lazy {
+        isLocalMotionScriptRunnerCreated = true
+        LocalMotionScriptRunner({ sdkService })
+    }
+
+    @Volatile
+    private var isLocalMotionScriptRunnerCreated = false
 
     private val conversationViewAttachesListeners =
-        CopyOnWriteArraySet<ConversationViewAttachesListener>()
+        listenerRegistry.listeners<ConversationViewAttachesListener>(
+            CallbackInterest.CONVERSATION_VIEW_ATTACHES
+        )
 
-    private val ttsListeners = CopyOnWriteArraySet<TtsListener>()
+    private val ttsListeners = listenerRegistry.listeners<TtsListener>(CallbackInterest.TTS_STATUS)
 
-    private val asrListeners = CopyOnWriteArraySet<AsrListener>()
+    private val asrListeners = listenerRegistry.listeners<AsrListener>(CallbackInterest.ASR)
 
-    private val nlpListeners = CopyOnWriteArraySet<NlpListener>()
+    private val nlpListeners = listenerRegistry.listeners<NlpListener>(CallbackInterest.NLP)
 
-    private val wakeUpWordListeners = CopyOnWriteArraySet<WakeupWordListener>()
+    private val wakeUpWordListeners =
+        listenerRegistry.listeners<WakeupWordListener>(CallbackInterest.WAKEUP_WORD)
 
-    private val onRobotReadyListeners = HashSet<OnRobotReadyListener>()
+    /**
+     * Each listener with its executor, or `null` to call it on the thread connecting.
+     */
+    private val onRobotReadyListeners = LinkedHashMap<OnRobotReadyListener, Executor?>()
 
     private val onBeWithMeStatusChangeListeners =
-        CopyOnWriteArraySet<OnBeWithMeStatusChangedListener>()
+        listenerRegistry.listeners<OnBeWithMeStatusChangedListener>(
+            CallbackInterest.BE_WITH_ME_STATUS
+        )
 
     private val onGoToLocationStatusChangeListeners =
-        CopyOnWriteArraySet<OnGoToLocationStatusChangedListener>()
+        listenerRegistry.listeners<OnGoToLocationStatusChangedListener>(
+            CallbackInterest.GO_TO_LOCATION_STATUS
+        )
 
     private val onTelepresenceStatusChangedListeners =
-        CopyOnWriteArraySet<OnTelepresenceStatusChangedListener>()
+        listenerRegistry.keyedListeners<String, OnTelepresenceStatusChangedListener>(
+            CallbackInterest.TELEPRESENCE_STATUS
+        )
 
     private val onTelepresenceEventChangedListener =
-        CopyOnWriteArraySet<OnTelepresenceEventChangedListener>()
+        listenerRegistry.listeners<OnTelepresenceEventChangedListener>(
+            CallbackInterest.TELEPRESENCE_EVENT
+        )
+
+    private val onLocationsUpdatedListeners =
+        listenerRegistry.listeners<OnLocationsUpdatedListener>(CallbackInterest.LOCATIONS_UPDATED)
 
-    private val onLocationsUpdatedListeners = CopyOnWriteArraySet<OnLocationsUpdatedListener>()
+    private val onLocationsChangedListeners =
+        listenerRegistry.derivedListeners<OnLocationsChangedListener>()
 
-    private val onUsersUpdatedListeners = CopyOnWriteArraySet<OnUsersUpdatedListener>()
+    private val locationsLock = Any()
+
+    /**
+     * Last locations pushed by the launcher, the base of the next [LocationsDiff]. Kept apart
+     * from [stateStore], whose entry is invalidated by [saveLocation] and [deleteLocation].
+     * Cleared on every connection.
+     */
+    private var pushedLocations: List<String>? = null
+
+    private val onUsersUpdatedListeners =
+        listenerRegistry.keyedListeners<String, OnUsersUpdatedListener>(
+            CallbackInterest.USER_UPDATED
+        )
 
     private val onBatteryStatusChangedListeners =
-        CopyOnWriteArraySet<OnBatteryStatusChangedListener>()
+        listenerRegistry.listeners<OnBatteryStatusChangedListener>(
+            CallbackInterest.BATTERY_STATUS,
+            isState = true
+        )
 
     private val onPrivacyModeStateChangedListeners =
-        CopyOnWriteArraySet<OnPrivacyModeChangedListener>()
+        listenerRegistry.listeners<OnPrivacyModeChangedListener>(
+            CallbackInterest.PRIVACY_MODE_STATE,
+            isState = true
+        )
 
     private val onConstraintBeWithStatusChangedListeners =
-        CopyOnWriteArraySet<OnConstraintBeWithStatusChangedListener>()
+        listenerRegistry.listeners<OnConstraintBeWithStatusChangedListener>(
+            CallbackInterest.CONSTRAINT_BE_WITH_STATUS
+        )
 
     private val onUserInteractionChangedListeners =
-        CopyOnWriteArraySet<OnUserInteractionChangedListener>()
+        listenerRegistry.listeners<OnUserInteractionChangedListener>(
+            CallbackInterest.USER_INTERACTION_STATUS,
+            isState = true
+        )
 
     private val onDetectionStateChangedListeners =
-        CopyOnWriteArraySet<OnDetectionStateChangedListener>()
+        listenerRegistry.listeners<OnDetectionStateChangedListener>(
+            CallbackInterest.DETECTION_STATE,
+            isState = true
+        )
 
     private val onRequestPermissionResultListeners =
-        CopyOnWriteArraySet<OnRequestPermissionResultListener>()
+        listenerRegistry.listeners<OnRequestPermissionResultListener>(
+            CallbackInterest.REQUEST_PERMISSION_RESULT
+        )
 
+    @Volatile
     private var activityStreamPublishListener: ActivityStreamPublishListener? = null
 
-    init {
-        val appContext = context.applicationContext
-        val packageName = appContext.packageName
-        val packageManager = appContext.packageManager
-        try {
-            this.applicationInfo =
-                packageManager.getApplicationInfo(packageName, PackageManager.GET_META_DATA)
-        } catch (e: PackageManager.NameNotFoundException) {
-            throw RuntimeException(e)
+    /**
+     * `null` to call [activityStreamPublishListener] on the binder thread.
+     */
+    @Volatile
+    private var activityStreamPublishExecutor: Executor? = null
+
+    /**
+     * Latest robot state pushed by the launcher or prefetched after connecting, backing
+     * [batteryData], [privacyMode], [locations], [isHardButtonsDisabled], [adminInfo] and the
+     * other values of [snapshot].
+     */
+    val stateStore = RobotStateStore()
+
+    /**
+     * Opt-in conflation of state callbacks: battery, privacy mode, user interaction and
+     * detection state. When enabled, a state that has not been delivered yet is replaced by
+     * a newer one, so listeners only receive the latest state instead of every intermediate one.
+     */
+    var conflateStateCallbacks: Boolean
+        get() = listenerRegistry.conflateStates
+        set(value) {
+            listenerRegistry.conflateStates = value
         }
+
+    /**
+     * Delivered and dropped counts of the state callbacks sent while
+     * [conflateStateCallbacks] was enabled.
+     */
+    val conflatedDeliveryStats: DeliveryStats
+        get() = listenerRegistry.stateStats()
+
+    /**
+     * Number of getter calls that were answered by an identical transaction already in flight
+     * for another caller, instead of sending their own.
+     */
+    val coalescedIpcCalls: Long
+        get() = singleFlight.saved
+
+    /**
+     * Delivery counters of a single callback.
+     *
+     * @param callback One of the [CallbackInterest] bits.
+     */
+    fun getCallbackStats(callback: Long): DeliveryStats {
+        return listenerRegistry.stats(callback)
     }
 
-    private val sdkServiceCallback = object : ISdkServiceCallback.Stub() {
+    /**
+     * Deliver main-thread callbacks in batches aligned to display frames.
+     * Events arriving within one vsync interval are then dispatched together, in arrival
+     * order, from a single frame callback instead of one main-loop message each.
+     */
+    var alignCallbacksToFrames: Boolean
+        get() = mainThreadExecutor.isFrameAligned
+        set(value) {
+            mainThreadExecutor.isFrameAligned = value
+        }
+
+    init {
+        callbackInterest.pin(
+            CallbackInterest.BATTERY_STATUS
+                    or CallbackInterest.PRIVACY_MODE_STATE
+                    or CallbackInterest.LOCATIONS_UPDATED
+                    or CallbackInterest.REQUEST_PERMISSION_RESULT
+        )
+    }
+
+    /**
+     * Handles every launcher callback, whichever of [sdkServiceCallback] and
+     * [sdkServiceAsyncCallback] it arrived through. Both stubs only forward here, so the two
+     * transports cannot behave differently.
+     *
+     * @return Whether the app had a listener for the event, reported to launchers that only
+     * know the two-way callback.
+     */
+    private inner class CallbackHandler {
 
         /*****************************************/
         /*                 Voice                 */
         /*****************************************/
 
-        override fun onTtsStatusChanged(ttsRequest: TtsRequest): Boolean {
-            if (ttsListeners.size > 0) {
-                uiHandler.post {
-                    for (ttsListener in ttsListeners) {
-                        ttsListener.onTtsStatusChanged(ttsRequest)
-                    }
-                }
-                return true
+        fun onTtsStatusChanged(ttsRequest: TtsRequest): Boolean {
+            return ttsListeners.dispatch(ttsRequest) { listener, args ->
+                listener.onTtsStatusChanged(args.obj0 as TtsRequest)
             }
-            return false
         }
 
-        override fun onWakeupWord(wakeupWord: String, direction: Int): Boolean {
-            if (wakeUpWordListeners.size > 0) {
-                uiHandler.post {
-                    for (wakeupWordListener in wakeUpWordListeners) {
-                        wakeupWordListener.onWakeupWord(wakeupWord, direction)
-                    }
-                }
-                return true
+        fun onWakeupWord(wakeupWord: String, direction: Int): Boolean {
+            return wakeUpWordListeners.dispatch(wakeupWord, int0 = direction) { listener, args ->
+                listener.onWakeupWord(args.obj0 as String, args.int0)
             }
-            return false
         }
 
-        override fun onNlpCompleted(nlpResult: NlpResult): Boolean {
-            if (nlpListeners.size > 0) {
-                uiHandler.post {
-                    for (nlpListener in nlpListeners) {
-                        nlpListener.onNlpCompleted(nlpResult)
-                    }
-                }
-                return true
+        fun onNlpCompleted(nlpResult: NlpResult): Boolean {
+            return nlpListeners.dispatch(nlpResult) { listener, args ->
+                listener.onNlpCompleted(args.obj0 as NlpResult)
             }
-            return false
         }
 
-        override fun onAsrResult(asrText: String): Boolean {
-            if (asrListeners.size > 0) {
-                uiHandler.post {
-                    for (asrListener in asrListeners) {
-                        asrListener.onAsrResult(asrText)
-                    }
-                }
-                return true
+        fun onAsrResult(asrText: String): Boolean {
+            return asrListeners.dispatch(asrText) { listener, args ->
+                listener.onAsrResult(args.obj0 as String)
             }
-            return false
         }
 
-        override fun onConversationViewAttaches(isAttached: Boolean): Boolean {
-            if (conversationViewAttachesListeners.size > 0) {
-                uiHandler.post {
-                    for (conversationViewAttachesListener in conversationViewAttachesListeners) {
-                        conversationViewAttachesListener.onConversationAttaches(isAttached)
-                    }
-                }
-                return true
+        fun onConversationViewAttaches(isAttached: Boolean): Boolean {
+            return conversationViewAttachesListeners.dispatch(bool0 = isAttached) { listener, args ->
+                listener.onConversationAttaches(args.bool0)
             }
-            return false
         }
 
-        override fun hasActiveNlpListeners(): Boolean {
+        fun hasActiveNlpListeners(): Boolean {
             val hasActiveNlpListener = !nlpListeners.isEmpty()
             return hasActiveNlpListener
         }
@@ -182,175 +344,152 @@ class Robot private constructor(context: Context) {
         /*                Location               */
         /*****************************************/
 
-        override fun onGoToLocationStatusChanged(
+        fun onGoToLocationStatusChanged(
             location: String,
             status: String,
             descriptionId: Int,
             description: String
         ): Boolean {
-            if (!onGoToLocationStatusChangeListeners.isEmpty()) {
-                uiHandler.post {
-                    for (listener in onGoToLocationStatusChangeListeners) {
-                        listener.onGoToLocationStatusChanged(
-                            location,
-                            status,
-                            descriptionId,
-                            description
-                        )
+            val isTracked = isGoToTrackerCreated && goToTracker.onStatusChanged(
+                GoToStatusModel(location, status, descriptionId, description)
+            )
+            return onGoToLocationStatusChangeListeners.dispatch(
+                location,
+                status,
+                description,
+                descriptionId
+            ) { listener, args ->
+                listener.onGoToLocationStatusChanged(
+                    args.obj0 as String,
+                    args.obj1 as String,
+                    args.int0,
+                    args.obj2 as String
+                )
+            } || isTracked
+        }
+
+        fun onLocationsUpdated(locations: List<String>): Boolean {
+            val newLocations = Collections.unmodifiableList(ArrayList(locations))
+            synchronized(locationsLock) {
+                val oldLocations = pushedLocations
+                pushedLocations = newLocations
+                stateStore.locations.update(newLocations)
+                if (onLocationsChangedListeners.isNotEmpty()) {
+                    val diff = LocationsDiff.compute(oldLocations ?: emptyList(), newLocations)
+                    if (!diff.isEmpty) {
+                        onLocationsChangedListeners.dispatch(diff) { listener, args ->
+                            listener.onLocationsChanged(args.obj0 as LocationsDiff)
+                        }
                     }
                 }
-                return true
             }
-            return false
-        }
-
-        override fun onLocationsUpdated(locations: List<String>): Boolean {
-            if (!onLocationsUpdatedListeners.isEmpty()) {
-                uiHandler.post {
-                    for (listener in onLocationsUpdatedListeners) {
-                        listener?.onLocationsUpdated(locations)
-                    }
-                }
-                return true
+            onLocationsUpdatedListeners.dispatch(locations) { listener, args ->
+                @Suppress("UNCHECKED_CAST")
+                listener.onLocationsUpdated(args.obj0 as List<String>)
             }
-            return false
+            // Handled by stateStore even without listeners, its bit is pinned.
+            return true
         }
 
         /*****************************************/
         /*            Movement & Follow          */
         /*****************************************/
 
-        override fun onBeWithMeStatusChanged(status: String): Boolean {
-            if (onBeWithMeStatusChangeListeners.size > 0) {
-                uiHandler.post {
-                    for (listener in onBeWithMeStatusChangeListeners) {
-                        listener.onBeWithMeStatusChanged(status)
-                    }
-                }
-                return true
+        fun onBeWithMeStatusChanged(status: String): Boolean {
+            return onBeWithMeStatusChangeListeners.dispatch(status) { listener, args ->
+                listener.onBeWithMeStatusChanged(args.obj0 as String)
             }
-            return false
         }
 
-        override fun onConstraintBeWithStatusChanged(isContraint: Boolean): Boolean {
-            if (onConstraintBeWithStatusChangedListeners.size > 0) {
-                uiHandler.post {
-                    for (listener in onConstraintBeWithStatusChangedListeners) {
-                        listener.onConstraintBeWithStatusChanged(isContraint)
-                    }
-                }
-                return true
+        fun onConstraintBeWithStatusChanged(isContraint: Boolean): Boolean {
+            return onConstraintBeWithStatusChangedListeners.dispatch(bool0 = isContraint) { listener, args ->
+                listener.onConstraintBeWithStatusChanged(args.bool0)
             }
-            return false
         }
 
         /*****************************************/
         /*           Users & Telepresence        */
         /*****************************************/
 
-        override fun onTelepresenceStatusChanged(callState: CallState): Boolean {
-            if (!onTelepresenceStatusChangedListeners.isEmpty()) {
-                uiHandler.post {
-                    for (listener in onTelepresenceStatusChangedListeners) {
-                        if (listener != null && callState.sessionId == listener.sessionId) {
-                            listener.onTelepresenceStatusChanged(callState)
-                        }
-                    }
-                }
-                return true
+        fun onTelepresenceStatusChanged(callState: CallState): Boolean {
+            return onTelepresenceStatusChangedListeners.dispatch(
+                callState.sessionId,
+                callState
+            ) { listener, args ->
+                listener.onTelepresenceStatusChanged(args.obj0 as CallState)
             }
-            return false
         }
 
-        override fun onUserUpdated(user: UserInfo): Boolean {
-            if (!onUsersUpdatedListeners.isEmpty()) {
-                uiHandler.post {
-                    for (listener in onUsersUpdatedListeners) {
-                        val isValidListener = listener != null && (listener.userIds == null
-                                || listener.userIds!!.isEmpty()
-                                || listener.userIds!!.contains(user.userId))
-                        if (isValidListener) {
-                            listener!!.onUserUpdated(user)
-                        }
-                    }
-                }
-                return true
+        fun onUserUpdated(user: UserInfo): Boolean {
+            if (isContactDirectoryCreated) {
+                contactDirectory.update(user)
+            }
+            return onUsersUpdatedListeners.dispatch(user.userId, user) { listener, args ->
+                listener.onUserUpdated(args.obj0 as UserInfo)
             }
-            return false
         }
 
-        override fun onTelepresenceEventChanged(callEventModel: CallEventModel): Boolean {
-            if (onTelepresenceEventChangedListener.isEmpty()) {
-                return false
+        fun onTelepresenceEventChanged(callEventModel: CallEventModel): Boolean {
+            if (callEventModel.state == CallEventModel.STATE_ENDED) {
+                onCallEnded()
             }
-            uiHandler.post {
-                for (listener in onTelepresenceEventChangedListener) {
-                    listener.onTelepresenceEventChanged(callEventModel)
-                }
+            return onTelepresenceEventChangedListener.dispatch(callEventModel) { listener, args ->
+                listener.onTelepresenceEventChanged(args.obj0 as CallEventModel)
             }
-            return true
         }
 
         /*****************************************/
         /*                 Utils                 */
         /*****************************************/
 
-        override fun onNotificationBtnClicked(notificationCallback: NotificationCallback) {
-            uiHandler.post {
-                val notificationListener = listenersMap[notificationCallback.notificationId]
-                if (notificationListener != null) {
-                    notificationListener.onNotificationBtnClicked(notificationCallback.event)
-                    listenersMap.remove(notificationCallback.notificationId)
-                }
-            }
+        fun onNotificationBtnClicked(notificationCallback: NotificationCallback) {
+            val pending = listenersMap.remove(notificationCallback.notificationId) ?: return
+            pending.executor.execute(Runnable {
+                pending.listener.onNotificationBtnClicked(notificationCallback.event)
+            })
         }
 
-        override fun onPrivacyModeStateChanged(state: Boolean): Boolean {
-            if (onPrivacyModeStateChangedListeners.size > 0) {
-                uiHandler.post {
-                    for (listener in onPrivacyModeStateChangedListeners) {
-                        listener.onPrivacyModeChanged(state)
-                    }
-                }
-                return true
+        fun onPrivacyModeStateChanged(state: Boolean): Boolean {
+            stateStore.privacyMode.update(state)
+            onPrivacyModeStateChangedListeners.dispatchState(state) { listener, args ->
+                listener.onPrivacyModeChanged(args.bool0)
             }
-            return false
+            // Handled by stateStore even without listeners, its bit is pinned.
+            return true
         }
 
-        override fun onBatteryStatusChanged(batteryData: BatteryData): Boolean {
-            if (onBatteryStatusChangedListeners.size > 0) {
-                uiHandler.post {
-                    for (listener in onBatteryStatusChangedListeners) {
-                        listener.onBatteryStatusChanged(batteryData)
-                    }
-                }
-                return true
+        fun onBatteryStatusChanged(batteryData: BatteryData): Boolean {
+            stateStore.battery.update(batteryData)
+            onBatteryStatusChangedListeners.dispatchState(batteryData) { listener, args ->
+                listener.onBatteryStatusChanged(args.obj0 as BatteryData)
             }
-            return false
+            // Handled by stateStore even without listeners, its bit is pinned.
+            return true
         }
 
-        override fun onRequestPermissionResult(permission: String, grantResult: Int): Boolean {
-            if (onRequestPermissionResultListeners.isNotEmpty()) {
-                uiHandler.post {
-                    for (listener in onRequestPermissionResultListeners) {
-                        listener.onRequestPermissionResult(
-                            Permission.valueToEnum(permission),
-                            grantResult
-                        )
-                    }
-                }
-                return true
+        fun onRequestPermissionResult(permission: String, grantResult: Int): Boolean {
+            stateStore.permissions[Permission.valueToEnum(permission)]?.update(grantResult)
+            onRequestPermissionResultListeners.dispatch(
+                Permission.valueToEnum(permission),
+                int0 = grantResult
+            ) { listener, args ->
+                listener.onRequestPermissionResult(args.obj0 as Permission, args.int0)
             }
-            return false
+            // Handled by stateStore even without listeners, its bit is pinned.
+            return true
         }
 
         /*****************************************/
         /*            Activity Stream            */
         /*****************************************/
 
-        override fun onActivityStreamPublish(message: ActivityStreamPublishMessage) {
-            if (activityStreamPublishListener != null) {
-                activityStreamPublishListener!!.onPublish(message)
+        fun onActivityStreamPublish(message: ActivityStreamPublishMessage) {
+            val listener = activityStreamPublishListener ?: return
+            val executor = activityStreamPublishExecutor
+            if (executor == null) {
+                listener.onPublish(message)
+            } else {
+                executor.execute(Runnable { listener.onPublish(message) })
             }
         }
 
@@ -358,67 +497,268 @@ class Robot private constructor(context: Context) {
         /*                 Media                 */
         /*****************************************/
 
-        override fun onPlayButtonClicked(play: Boolean) {
-            uiHandler.post {
-                if (mediaButtonListener != null) {
-                    mediaButtonListener!!.onPlayButtonClicked(play)
-                }
-            }
+        fun onPlayButtonClicked(play: Boolean) {
+            deliverMediaButton { it.onPlayButtonClicked(play) }
         }
 
-        override fun onNextButtonClicked() {
-            uiHandler.post {
-                if (mediaButtonListener != null) {
-                    mediaButtonListener!!.onNextButtonClicked()
-                }
-            }
+        fun onNextButtonClicked() {
+            deliverMediaButton { it.onNextButtonClicked() }
         }
 
-        override fun onBackButtonClicked() {
-            uiHandler.post {
-                if (mediaButtonListener != null) {
-                    mediaButtonListener!!.onBackButtonClicked()
-                }
-            }
+        fun onBackButtonClicked() {
+            deliverMediaButton { it.onBackButtonClicked() }
         }
 
-        override fun onTrackBarChanged(position: Int) {
-            uiHandler.post {
-                if (mediaButtonListener != null) {
-                    mediaButtonListener!!.onTrackBarChanged(position)
-                }
-            }
+        fun onTrackBarChanged(position: Int) {
+            deliverMediaButton { it.onTrackBarChanged(position) }
         }
 
         /*****************************************/
         /*             Detection Mode            */
         /*****************************************/
 
-        override fun onUserInteractionStatusChanged(isInteracting: Boolean): Boolean {
-            if (onUserInteractionChangedListeners.size > 0) {
-                uiHandler.post {
-                    for (listener in onUserInteractionChangedListeners) {
-                        listener.onUserInteraction(isInteracting)
-                    }
-                }
-                return true
+        fun onUserInteractionStatusChanged(isInteracting: Boolean): Boolean {
+            return onUserInteractionChangedListeners.dispatchState(isInteracting) { listener, args ->
+                listener.onUserInteraction(args.bool0)
             }
-            return false
         }
 
-        override fun onDetectionStateChanged(state: Int): Boolean {
-            if (onDetectionStateChangedListeners.size > 0) {
-                uiHandler.post {
-                    for (listener in onDetectionStateChangedListeners) {
-                        listener.onDetectionStateChanged(state)
-                    }
-                }
-                return true
+        fun onDetectionStateChanged(state: Int): Boolean {
+            return onDetectionStateChangedListeners.dispatchState(state) { listener, args ->
+                listener.onDetectionStateChanged(args.int0)
             }
-            return false
         }
     }
 
+    private val callbackHandler = CallbackHandler()
+
+    /**
+     * Registered through [ISdkService.register] with launchers predating
+     * [ISdkService.registerAsync]. Every method only forwards to [callbackHandler].
+     */
+    private val sdkServiceCallback = object : ISdkServiceCallback.Stub() {
+
+        override fun onTtsStatusChanged(ttsRequest: TtsRequest): Boolean {
+            return callbackHandler.onTtsStatusChanged(ttsRequest)
+        }
+
+        override fun onWakeupWord(wakeupWord: String, direction: Int): Boolean {
+            return callbackHandler.onWakeupWord(wakeupWord, direction)
+        }
+
+        override fun onNlpCompleted(nlpResult: NlpResult): Boolean {
+            return callbackHandler.onNlpCompleted(nlpResult)
+        }
+
+        override fun onAsrResult(asrText: String): Boolean {
+            return callbackHandler.onAsrResult(asrText)
+        }
+
+        override fun onConversationViewAttaches(isAttached: Boolean): Boolean {
+            return callbackHandler.onConversationViewAttaches(isAttached)
+        }
+
+        override fun hasActiveNlpListeners(): Boolean {
+            return callbackHandler.hasActiveNlpListeners()
+        }
+
+        override fun onGoToLocationStatusChanged(
+            location: String,
+            status: String,
+            descriptionId: Int,
+            description: String
+        ): Boolean {
+            return callbackHandler.onGoToLocationStatusChanged(
+                location,
+                status,
+                descriptionId,
+                description
+            )
+        }
+
+        override fun onLocationsUpdated(locations: List<String>): Boolean {
+            return callbackHandler.onLocationsUpdated(locations)
+        }
+
+        override fun onBeWithMeStatusChanged(status: String): Boolean {
+            return callbackHandler.onBeWithMeStatusChanged(status)
+        }
+
+        override fun onConstraintBeWithStatusChanged(isContraint: Boolean): Boolean {
+            return callbackHandler.onConstraintBeWithStatusChanged(isContraint)
+        }
+
+        override fun onTelepresenceStatusChanged(callState: CallState): Boolean {
+            return callbackHandler.onTelepresenceStatusChanged(callState)
+        }
+
+        override fun onUserUpdated(user: UserInfo): Boolean {
+            return callbackHandler.onUserUpdated(user)
+        }
+
+        override fun onTelepresenceEventChanged(callEventModel: CallEventModel): Boolean {
+            return callbackHandler.onTelepresenceEventChanged(callEventModel)
+        }
+
+        override fun onNotificationBtnClicked(notificationCallback: NotificationCallback) {
+            callbackHandler.onNotificationBtnClicked(notificationCallback)
+        }
+
+        override fun onPrivacyModeStateChanged(state: Boolean): Boolean {
+            return callbackHandler.onPrivacyModeStateChanged(state)
+        }
+
+        override fun onBatteryStatusChanged(batteryData: BatteryData): Boolean {
+            return callbackHandler.onBatteryStatusChanged(batteryData)
+        }
+
+        override fun onRequestPermissionResult(permission: String, grantResult: Int): Boolean {
+            return callbackHandler.onRequestPermissionResult(permission, grantResult)
+        }
+
+        override fun onActivityStreamPublish(message: ActivityStreamPublishMessage) {
+            callbackHandler.onActivityStreamPublish(message)
+        }
+
+        override fun onPlayButtonClicked(play: Boolean) {
+            callbackHandler.onPlayButtonClicked(play)
+        }
+
+        override fun onNextButtonClicked() {
+            callbackHandler.onNextButtonClicked()
+        }
+
+        override fun onBackButtonClicked() {
+            callbackHandler.onBackButtonClicked()
+        }
+
+        override fun onTrackBarChanged(position: Int) {
+            callbackHandler.onTrackBarChanged(position)
+        }
+
+        override fun onUserInteractionStatusChanged(isInteracting: Boolean): Boolean {
+            return callbackHandler.onUserInteractionStatusChanged(isInteracting)
+        }
+
+        override fun onDetectionStateChanged(state: Int): Boolean {
+            return callbackHandler.onDetectionStateChanged(state)
+        }
+    }
+
+    /**
+     * One-way twin of [sdkServiceCallback] for launchers supporting
+     * [ISdkService.registerAsync], so the launcher does not wait for the app to handle events.
+     * Like [sdkServiceCallback], every method only forwards to [callbackHandler].
+     */
+    private val sdkServiceAsyncCallback = object : ISdkServiceAsyncCallback.Stub() {
+
+        override fun onWakeupWord(wakeupWord: String, direction: Int) {
+            callbackHandler.onWakeupWord(wakeupWord, direction)
+        }
+
+        override fun onTtsStatusChanged(ttsRequest: TtsRequest) {
+            callbackHandler.onTtsStatusChanged(ttsRequest)
+        }
+
+        override fun onNlpCompleted(nlpResult: NlpResult) {
+            callbackHandler.onNlpCompleted(nlpResult)
+        }
+
+        override fun onActivityStreamPublish(message: ActivityStreamPublishMessage) {
+            callbackHandler.onActivityStreamPublish(message)
+        }
+
+        override fun onPlayButtonClicked(play: Boolean) {
+            callbackHandler.onPlayButtonClicked(play)
+        }
+
+        override fun onNextButtonClicked() {
+            callbackHandler.onNextButtonClicked()
+        }
+
+        override fun onBackButtonClicked() {
+            callbackHandler.onBackButtonClicked()
+        }
+
+        override fun onTrackBarChanged(position: Int) {
+            callbackHandler.onTrackBarChanged(position)
+        }
+
+        override fun onNotificationBtnClicked(notificationCallback: NotificationCallback) {
+            callbackHandler.onNotificationBtnClicked(notificationCallback)
+        }
+
+        override fun onConversationViewAttaches(isAttached: Boolean) {
+            callbackHandler.onConversationViewAttaches(isAttached)
+        }
+
+        override fun onBeWithMeStatusChanged(status: String) {
+            callbackHandler.onBeWithMeStatusChanged(status)
+        }
+
+        override fun onGoToLocationStatusChanged(
+            location: String,
+            status: String,
+            descriptionId: Int,
+            description: String
+        ) {
+            callbackHandler.onGoToLocationStatusChanged(
+                location,
+                status,
+                descriptionId,
+                description
+            )
+        }
+
+        override fun onTelepresenceStatusChanged(callState: CallState) {
+            callbackHandler.onTelepresenceStatusChanged(callState)
+        }
+
+        override fun onLocationsUpdated(locations: List<String>) {
+            callbackHandler.onLocationsUpdated(locations)
+        }
+
+        override fun onUserUpdated(user: UserInfo) {
+            callbackHandler.onUserUpdated(user)
+        }
+
+        override fun onConstraintBeWithStatusChanged(isContraint: Boolean) {
+            callbackHandler.onConstraintBeWithStatusChanged(isContraint)
+        }
+
+        override fun onUserInteractionStatusChanged(isInteracting: Boolean) {
+            callbackHandler.onUserInteractionStatusChanged(isInteracting)
+        }
+
+        override fun onBatteryStatusChanged(batteryData: BatteryData) {
+            callbackHandler.onBatteryStatusChanged(batteryData)
+        }
+
+        override fun onPrivacyModeStateChanged(state: Boolean) {
+            callbackHandler.onPrivacyModeStateChanged(state)
+        }
+
+        override fun onDetectionStateChanged(state: Int) {
+            callbackHandler.onDetectionStateChanged(state)
+        }
+
+        override fun onAsrResult(asrText: String) {
+            callbackHandler.onAsrResult(asrText)
+        }
+
+        override fun onTelepresenceEventChanged(callEventModel: CallEventModel) {
+            callbackHandler.onTelepresenceEventChanged(callEventModel)
+        }
+
+        override fun onRequestPermissionResult(permission: String, grantResult: Int) {
+            callbackHandler.onRequestPermissionResult(permission, grantResult)
+        }
+    }
+
+    private fun deliverMediaButton(action: (MediaButtonListener) -> Unit) {
+        mediaButtonExecutor.execute(Runnable { mediaButtonListener?.let(action) })
+    }
+
     /*****************************************/
     /*                  Init                 */
     /*****************************************/
@@ -441,38 +781,214 @@ class Robot private constructor(context: Context) {
     @RestrictTo(LIBRARY)
     @UiThread
     fun setSdkService(sdkService: ISdkService?) {
-        this.sdkService = sdkService
-        mediaBar = AidlMediaBarController(sdkService)
+        connectedSdkService = sdkService
+        synchronized(stateStore) {
+            this.sdkService = sdkService?.let { mainThreadIpcDetector?.wrap(it) ?: it }
+            stateStore.invalidate()
+        }
+        if (isRecentCallStoreCreated) {
+            // Calls may have ended while disconnected.
+            recentCallStore.markStale()
+        }
+        if (isContactDirectoryCreated) {
+            contactDirectory.refresh()
+        }
+        synchronized(locationsLock) {
+            // The next diff is taken against nothing, so it reports every location as added.
+            pushedLocations = null
+        }
+        mediaBar = AidlMediaBarController(this.sdkService)
         registerCallback()
-        onRobotReadyListeners.forEach { it.onRobotReady(sdkService != null) }
+        this.sdkService?.let { flushPendingCommands(it) }
+        if (sdkService != null) {
+            // Warms the session constants in the state store.
+            ipcWorker.submit { snapshot() }
+        }
+        val isConnected = sdkService != null
+        for ((listener, executor) in onRobotReadyListeners) {
+            notifyRobotReady(listener, executor, isConnected)
+        }
     }
 
     @UiThread
     private fun registerCallback() {
         sdkService?.let {
             try {
-                it.register(applicationInfo, sdkServiceCallback)
+                // Older launchers do not know registerAsync() and answer with false.
+                if (!it.registerAsync(applicationInfo, sdkServiceAsyncCallback)) {
+                    it.register(applicationInfo, sdkServiceCallback)
+                }
             } catch (e: RemoteException) {
                 Log.e(TAG, "Remote invocation error.")
             }
-
+            sendCallbackInterest(callbackInterest.value)
         } ?: run {
             Log.w(TAG, "sdkService=null")
         }
     }
 
+    /**
+     * Let the launcher skip callback transactions the app has no listeners for.
+     * Launchers without support for it ignore the one-way call.
+     */
+    private fun sendCallbackInterest(mask: Long) {
+        sdkService?.let {
+            try {
+                it.setCallbackInterest(mask)
+            } catch (e: RemoteException) {
+                Log.e(TAG, "setCallbackInterest(long) error.")
+            }
+        }
+    }
+
+    /**
+     * Keep commands issued before the service is connected, instead of dropping them, and
+     * send them in issue order right after it connects. Queries are not queued.
+     *
+     * At most [capacity] commands are kept, dropping the oldest beyond that, and each one
+     * is discarded if not sent within [ttlMillis]. While waiting, a toggle such as
+     * [showTopBar]/[hideTopBar] or [privacyMode] replaces the previous one of its kind.
+     *
+     * Commands that only make sense at the moment they are issued are never queued, as a late
+     * one would move or wake the robot unexpectedly: joystick commands, [stopMovement],
+     * [beWithMe], [constraintBeWith] and [wakeup]. They are dropped while disconnected and
+     * are sent ahead of queued commands while those are being flushed.
+     */
+    @JvmOverloads
+    fun enablePendingCommandQueue(
+        capacity: Int = DEFAULT_PENDING_COMMAND_CAPACITY,
+        ttlMillis: Long = DEFAULT_PENDING_COMMAND_TTL_MILLIS
+    ) {
+        pendingCommands = PendingCommandQueue(capacity, ttlMillis)
+    }
+
+    /**
+     * Drop commands again while disconnected, discarding the ones still queued.
+     */
+    fun disablePendingCommandQueue() {
+        pendingCommands = null
+    }
+
+    /**
+     * Send [command], or queue it while disconnected if [enablePendingCommandQueue] was
+     * called. Queued commands sharing a [latestKey] replace each other.
+     *
+     * @param isQueueable `false` for commands that must never be sent late.
+     */
+    private fun sendCommand(
+        errorMessage: String,
+        latestKey: String? = null,
+        isQueueable: Boolean = true,
+        command: (ISdkService) -> Unit
+    ) {
+        val pendingCommand = PendingCommand(errorMessage, command)
+        val pendingCommands = if (isQueueable) pendingCommands else null
+        val isQueued = pendingCommands?.queueIfPending(latestKey, pendingCommand) {
+            sdkService != null
+        } ?: false
+        if (!isQueued) {
+            sdkService?.let { pendingCommand.send(it) }
+        }
+    }
+
+    private fun flushPendingCommands(sdkService: ISdkService) {
+        val pendingCommands = pendingCommands ?: return
+        try {
+            while (true) {
+                val command = pendingCommands.pollForFlush() ?: return
+                try {
+                    command.send(sdkService)
+                } catch (e: RuntimeException) {
+                    // Whoever issued the command is gone, so log it and go on with the others.
+                    Log.e(TAG, command.errorMessage, e)
+                }
+            }
+        } finally {
+            pendingCommands.endFlush()
+        }
+    }
+
+    private class PendingCommand(
+        val errorMessage: String,
+        private val command: (ISdkService) -> Unit
+    ) {
+
+        fun send(sdkService: ISdkService) {
+            try {
+                command(sdkService)
+            } catch (e: RemoteException) {
+                Log.e(TAG, errorMessage)
+            }
+        }
+    }
+
+    /**
+     * Report calls to the launcher made on the main thread that take longer than
+     * [budgetMillis], to find what blocks the UI.
+     *
+     * Every such call is logged with its stack trace, then passed to [listener] if given.
+     * When [crash] is set, the call also throws a [MainThreadIpcViolation], which is meant
+     * for debug builds only.
+     */
+    @UiThread
+    @JvmOverloads
+    fun enableMainThreadIpcDetection(
+        budgetMillis: Long = DEFAULT_MAIN_THREAD_IPC_BUDGET_MILLIS,
+        listener: OnMainThreadIpcListener? = null,
+        crash: Boolean = false
+    ) {
+        mainThreadIpcDetector = MainThreadIpcDetector(budgetMillis, listener, crash)
+        rewrapSdkService()
+    }
+
+    @UiThread
+    fun disableMainThreadIpcDetection() {
+        mainThreadIpcDetector = null
+        rewrapSdkService()
+    }
+
+    private fun rewrapSdkService() {
+        val sdkService = connectedSdkService ?: return
+        synchronized(stateStore) {
+            this.sdkService = mainThreadIpcDetector?.wrap(sdkService) ?: sdkService
+        }
+        mediaBar = AidlMediaBarController(this.sdkService)
+    }
+
     @UiThread
     fun addOnRobotReadyListener(onRobotReadyListener: OnRobotReadyListener) {
-        onRobotReadyListeners.add(onRobotReadyListener)
+        onRobotReadyListeners[onRobotReadyListener] = null
 
         onRobotReadyListener.onRobotReady(isReady)
     }
 
+    /**
+     * Same as [addOnRobotReadyListener],
+     * but callbacks are delivered on [executor] instead of the calling thread.
+     */
+    @UiThread
+    fun addOnRobotReadyListener(executor: Executor, onRobotReadyListener: OnRobotReadyListener) {
+        onRobotReadyListeners[onRobotReadyListener] = executor
+        notifyRobotReady(onRobotReadyListener, executor, isReady)
+    }
+
     @UiThread
     fun removeOnRobotReadyListener(onRobotReadyListener: OnRobotReadyListener) {
         onRobotReadyListeners.remove(onRobotReadyListener)
     }
 
+    private fun notifyRobotReady(
+        listener: OnRobotReadyListener,
+        executor: Executor?,
+        isReady: Boolean
+    ) {
+        if (executor == null) {
+            listener.onRobotReady(isReady)
+        } else {
+            executor.execute(Runnable { listener.onRobotReady(isReady) })
+        }
+    }
+
     /*****************************************/
     /*                 Voice                 */
     /*****************************************/
@@ -483,13 +999,9 @@ class Robot private constructor(context: Context) {
      * @param ttsRequest Which contains all the TTS information temi needs to in order to speak.
      */
     fun speak(ttsRequest: TtsRequest) {
-        sdkService?.let {
-            try {
-                ttsRequest.packageName = applicationInfo.packageName
-                it.speak(ttsRequest)
-            } catch (e: RemoteException) {
-                Log.e(TAG, "Failed to invoke remote call speak()")
-            }
+        sendCommand("Failed to invoke remote call speak()") {
+            ttsRequest.packageName = applicationInfo.packageName
+            it.speak(ttsRequest)
         }
     }
 
@@ -498,40 +1010,30 @@ class Robot private constructor(context: Context) {
      */
     val wakeupWord: String
         get() {
-            sdkService?.let {
-                try {
-                    return it.wakeupWord ?: ""
-                } catch (e: RemoteException) {
-                    Log.e(TAG, "getWakeupWord() error.")
+            return stateStore.wakeupWord.getOrLoad {
+                sdkService?.let {
+                    try {
+                        return@getOrLoad it.wakeupWord
+                    } catch (e: RemoteException) {
+                        Log.e(TAG, "getWakeupWord() error.")
+                    }
                 }
-            }
-            return ""
+                null
+            } ?: ""
         }
 
     /**
      * Trigger temi's wakeup programmatically.
      */
     fun wakeup() {
-        sdkService?.let {
-            try {
-                it.wakeup()
-            } catch (e: RemoteException) {
-                Log.e(TAG, "wakeup() error.")
-            }
-        }
+        sendCommand("wakeup() error.", isQueueable = false) { it.wakeup() }
     }
 
     /**
      * Stops currently processed TTS request and empty the queue.
      */
     fun cancelAllTtsRequests() {
-        sdkService?.let {
-            try {
-                it.cancelAll()
-            } catch (e: RemoteException) {
-                Log.e(TAG, "Failed to invoke remote call cancelAllTtsRequest()")
-            }
-        }
+        sendCommand("Failed to invoke remote call cancelAllTtsRequest()") { it.cancelAll() }
     }
 
     /**
@@ -541,14 +1043,7 @@ class Robot private constructor(context: Context) {
      * @param contextsToLock - List of contexts names to lock.
      */
     fun lockContexts(contextsToLock: List<String>) {
-        if (sdkService != null) {
-            try {
-                sdkService!!.lockContexts(contextsToLock)
-            } catch (e: RemoteException) {
-                Log.e(TAG, "lockContexts(List<String>) error.")
-            }
-
-        }
+        sendCommand("lockContexts(List<String>) error.") { it.lockContexts(contextsToLock) }
     }
 
     /**
@@ -557,13 +1052,8 @@ class Robot private constructor(context: Context) {
      * @param contextsToRelease - List of contexts names to release.
      */
     fun releaseContexts(contextsToRelease: List<String>) {
-        if (sdkService != null) {
-            try {
-                sdkService!!.releaseContexts(contextsToRelease)
-            } catch (e: RemoteException) {
-                Log.e(TAG, "releaseContexts(List<String>) error.")
-            }
-
+        sendCommand("releaseContexts(List<String>) error.") {
+            it.releaseContexts(contextsToRelease)
         }
     }
 
@@ -573,22 +1063,14 @@ class Robot private constructor(context: Context) {
      * @param question - First question from robot.
      */
     fun askQuestion(question: String) {
-        try {
-            sdkService?.askQuestion(question)
-        } catch (e: RemoteException) {
-            Log.e(TAG, "Ask question call failed.")
-        }
+        sendCommand("Ask question call failed.") { it.askQuestion(question) }
     }
 
     /**
      * Finish conversation.
      */
     fun finishConversation() {
-        try {
-            sdkService?.finishConversation()
-        } catch (e: RemoteException) {
-            Log.e(TAG, "Finish conversation call failed.")
-        }
+        sendCommand("Finish conversation call failed.") { it.finishConversation() }
     }
 
     @UiThread
@@ -596,6 +1078,14 @@ class Robot private constructor(context: Context) {
         conversationViewAttachesListeners.add(conversationViewAttachesListener)
     }
 
+    /**
+     * Same as [addConversationViewAttachesListenerListener],
+     * but callbacks are delivered on [executor] instead of the main thread.
+     */
+    fun addConversationViewAttachesListenerListener(executor: Executor, conversationViewAttachesListener: ConversationViewAttachesListener) {
+        conversationViewAttachesListeners.add(conversationViewAttachesListener, executor)
+    }
+
     @UiThread
     fun removeConversationViewAttachesListenerListener(conversationViewAttachesListener: ConversationViewAttachesListener) {
         conversationViewAttachesListeners.remove(conversationViewAttachesListener)
@@ -606,6 +1096,14 @@ class Robot private constructor(context: Context) {
         nlpListeners.add(nlpListener)
     }
 
+    /**
+     * Same as [addNlpListener],
+     * but callbacks are delivered on [executor] instead of the main thread.
+     */
+    fun addNlpListener(executor: Executor, nlpListener: NlpListener) {
+        nlpListeners.add(nlpListener, executor)
+    }
+
     @UiThread
     fun removeNlpListener(nlpListener: NlpListener) {
         nlpListeners.remove(nlpListener)
@@ -616,6 +1114,14 @@ class Robot private constructor(context: Context) {
         ttsListeners.add(ttsListener)
     }
 
+    /**
+     * Same as [addTtsListener],
+     * but callbacks are delivered on [executor] instead of the main thread.
+     */
+    fun addTtsListener(executor: Executor, ttsListener: TtsListener) {
+        ttsListeners.add(ttsListener, executor)
+    }
+
     @UiThread
     fun removeTtsListener(ttsListener: TtsListener) {
         ttsListeners.remove(ttsListener)
@@ -626,6 +1132,14 @@ class Robot private constructor(context: Context) {
         wakeUpWordListeners.add(wakeupWordListener)
     }
 
+    /**
+     * Same as [addWakeupWordListener],
+     * but callbacks are delivered on [executor] instead of the main thread.
+     */
+    fun addWakeupWordListener(executor: Executor, wakeupWordListener: WakeupWordListener) {
+        wakeUpWordListeners.add(wakeupWordListener, executor)
+    }
+
     @UiThread
     fun removeWakeupWordListener(wakeupWordListener: WakeupWordListener) {
         wakeUpWordListeners.remove(wakeupWordListener)
@@ -641,6 +1155,14 @@ class Robot private constructor(context: Context) {
         asrListeners.add(asrListener)
     }
 
+    /**
+     * Same as [addAsrListener],
+     * but callbacks are delivered on [executor] instead of the main thread.
+     */
+    fun addAsrListener(executor: Executor, asrListener: AsrListener) {
+        asrListeners.add(asrListener, executor)
+    }
+
     /*****************************************/
     /*                Location               */
     /*****************************************/
@@ -654,7 +1176,11 @@ class Robot private constructor(context: Context) {
     fun saveLocation(name: String): Boolean {
         sdkService?.let {
             try {
-                return it.saveLocation(name)
+                val isSaved = it.saveLocation(name)
+                if (isSaved) {
+                    stateStore.locations.invalidate()
+                }
+                return isSaved
             } catch (e: RemoteException) {
                 Log.e(TAG, "saveLocation(String)")
             }
@@ -671,7 +1197,11 @@ class Robot private constructor(context: Context) {
     fun deleteLocation(name: String): Boolean {
         sdkService?.let {
             try {
-                return it.deleteLocation(name)
+                val isDeleted = it.deleteLocation(name)
+                if (isDeleted) {
+                    stateStore.locations.invalidate()
+                }
+                return isDeleted
             } catch (e: RemoteException) {
                 Log.e(TAG, "deleteLocation(String)")
             }
@@ -682,34 +1212,73 @@ class Robot private constructor(context: Context) {
     /**
      * Retrieve list of previously saved locations.
      *
-     * @return List of saved locations.
+     * @return List of saved locations, a new copy on every call.
      */
     val locations: List<String>
         get() {
-            sdkService?.let {
-                try {
-                    return it.locations ?: emptyList()
-                } catch (e: RemoteException) {
-                    Log.e(TAG, "getLocations()")
+            val cached = stateStore.locations.getOrLoad {
+                singleFlight.run("getLocations()", ::fetchLocations)
+            } ?: return ArrayList()
+            return ArrayList(cached)
+        }
+
+    private fun fetchLocations(): List<String>? {
+        sdkService?.let {
+            try {
+                return it.locations?.let { locations ->
+                    Collections.unmodifiableList(ArrayList(locations))
                 }
+            } catch (e: RemoteException) {
+                Log.e(TAG, "getLocations()")
             }
-            return emptyList()
         }
+        return null
+    }
 
     /**
      * Send robot to previously saved location.
      *
-     * @param location - Saved location name.
+     * @param location - Saved location name.
+     */
+    fun goTo(location: String) {
+        require(!TextUtils.isEmpty(location)) { "Location can not be null or empty." }
+        sendCommand("goTo(String) error.") { it.goTo(location) }
+    }
+
+    /**
+     * Go to each of [locations] in order, sending the next [goTo] as soon as the previous
+     * location is reached.
+     *
+     * @param listener Notified of every leg and of the end of the patrol, on [executor].
+     * @param legTimeoutMillis Time after which a leg that did not complete counts as aborted.
+     * @param abortPolicy What to do when a leg is aborted or times out.
+     * @param maxRetries Attempts added per location with [PatrolAbortPolicy.RETRY].
      */
-    fun goTo(location: String) {
-        require(!TextUtils.isEmpty(location)) { "Location can not be null or empty." }
-        sdkService?.let {
-            try {
-                it.goTo(location)
-            } catch (e: RemoteException) {
-                Log.e(TAG, "goTo(String) error.")
-            }
-        }
+    @JvmOverloads
+    fun startPatrol(
+        locations: List<String>,
+        listener: OnPatrolListener? = null,
+        legTimeoutMillis: Long = DEFAULT_GO_TO_TIMEOUT_MILLIS,
+        abortPolicy: PatrolAbortPolicy = PatrolAbortPolicy.RETRY,
+        maxRetries: Int = 1,
+        executor: Executor = mainThreadExecutor
+    ): PatrolRun {
+        require(locations.none { TextUtils.isEmpty(it) }) { "Location can not be null or empty." }
+        val run = PatrolRun(
+            ArrayList(locations),
+            legTimeoutMillis,
+            abortPolicy,
+            maxRetries,
+            listener,
+            executor,
+            { location, timeoutMillis, callback ->
+                // Off the binder thread, which would otherwise be held by the next goTo.
+                goToAsync(location, callback, timeoutMillis, ipcWorker.executor)
+            },
+            { stopMovement() }
+        )
+        run.start()
+        return run
     }
 
     @UiThread
@@ -717,6 +1286,14 @@ class Robot private constructor(context: Context) {
         onGoToLocationStatusChangeListeners.add(listener)
     }
 
+    /**
+     * Same as [addOnGoToLocationStatusChangedListener],
+     * but callbacks are delivered on [executor] instead of the main thread.
+     */
+    fun addOnGoToLocationStatusChangedListener(executor: Executor, listener: OnGoToLocationStatusChangedListener) {
+        onGoToLocationStatusChangeListeners.add(listener, executor)
+    }
+
     @UiThread
     fun removeOnGoToLocationStatusChangedListener(listener: OnGoToLocationStatusChangedListener) {
         onGoToLocationStatusChangeListeners.remove(listener)
@@ -727,11 +1304,41 @@ class Robot private constructor(context: Context) {
         onLocationsUpdatedListeners.add(listener)
     }
 
+    /**
+     * Same as [addOnLocationsUpdatedListener],
+     * but callbacks are delivered on [executor] instead of the main thread.
+     */
+    fun addOnLocationsUpdatedListener(executor: Executor, listener: OnLocationsUpdatedListener) {
+        onLocationsUpdatedListeners.add(listener, executor)
+    }
+
     @UiThread
     fun removeOnLocationsUpdateListener(listener: OnLocationsUpdatedListener) {
         onLocationsUpdatedListeners.remove(listener)
     }
 
+    /**
+     * Start receiving added, removed and renamed locations instead of the complete list.
+     * The first change after connecting to the launcher reports all locations as added.
+     */
+    @UiThread
+    fun addOnLocationsChangedListener(listener: OnLocationsChangedListener) {
+        onLocationsChangedListeners.add(listener)
+    }
+
+    /**
+     * Same as [addOnLocationsChangedListener],
+     * but callbacks are delivered on [executor] instead of the main thread.
+     */
+    fun addOnLocationsChangedListener(executor: Executor, listener: OnLocationsChangedListener) {
+        onLocationsChangedListeners.add(listener, executor)
+    }
+
+    @UiThread
+    fun removeOnLocationsChangedListener(listener: OnLocationsChangedListener) {
+        onLocationsChangedListeners.remove(listener)
+    }
+
     /*****************************************/
     /*            Movement & Follow          */
     /*****************************************/
@@ -741,56 +1348,101 @@ class Robot private constructor(context: Context) {
      * See [OnBeWithMeStatusChangedListener] to listen for status changes.
      */
     fun beWithMe() {
-        sdkService?.let {
-            try {
-                it.beWithMe()
-            } catch (e: RemoteException) {
-                Log.e(TAG, "beWithMe()")
-            }
-        }
+        sendCommand("beWithMe()", isQueueable = false) { it.beWithMe() }
     }
 
     /**
      * Start constraint follow.
      */
     fun constraintBeWith() {
+        sendCommand("constraintBeWith() error.", isQueueable = false) { it.constraintBeWith() }
+    }
+
+    /**
+     * Request robot to stop any movement.
+     */
+    fun stopMovement() {
+        sendCommand("stopMovement()", isQueueable = false) { it.stopMovement() }
+    }
+
+    /**
+     * Joystick commands.
+     *
+     * @param x Move on the x axis from -1 to 1.
+     * @param y Move on the y axis from -1 to 1.
+     */
+    fun skidJoy(x: Float, y: Float) {
         sdkService?.let {
             try {
-                it.constraintBeWith()
+                it.skidJoy(x, y)
             } catch (e: RemoteException) {
-                Log.e(TAG, "constraintBeWith() error.")
+                Log.e(TAG, "skidJoy(float, float) (x=$x, y=$y)")
             }
         }
     }
 
     /**
-     * Request robot to stop any movement.
+     * Open a channel for driving temi with a joystick, sending the latest position
+     * [rateHz] times per second instead of one transaction per [skidJoy] call.
+     * Close the channel when the joystick is released.
      */
-    fun stopMovement() {
+    @JvmOverloads
+    fun openJoystickChannel(rateHz: Int = DEFAULT_JOYSTICK_RATE_HZ): JoystickChannel {
+        require(rateHz in 1..1000) { "rateHz must be within 1..1000, was $rateHz" }
+        return JoystickChannel(1000L / rateHz, { sdkService })
+    }
+
+    /**
+     * Run all steps of [script] with the robot timing them, instead of one call per
+     * movement from the app. Starting a script aborts the one still running.
+     *
+     * Launchers that cannot run scripts get the steps one by one from an SDK thread.
+     *
+     * @param listener Notified of each step once issued and its duration elapsed, and of an
+     * abort, on [executor].
+     */
+    @JvmOverloads
+    fun runMotionScript(
+        script: MotionScript,
+        listener: OnMotionScriptListener? = null,
+        executor: Executor = mainThreadExecutor
+    ) {
+        val callback = object : IMotionScriptCallback.Stub() {
+            override fun onStepCompleted(step: Int) {
+                listener?.let { executor.execute(Runnable { it.onStepCompleted(step) }) }
+            }
+
+            override fun onAborted(step: Int, reason: String) {
+                listener?.let { executor.execute(Runnable { it.onAborted(step, reason) }) }
+            }
+        }
         sdkService?.let {
             try {
-                it.stopMovement()
+                // Older launchers do not know runMotionScript() and answer with false.
+                if (it.runMotionScript(script, callback)) {
+                    return
+                }
             } catch (e: RemoteException) {
-                Log.e(TAG, "stopMovement()")
+                Log.e(TAG, "runMotionScript(MotionScript) error.")
             }
-
         }
+        localMotionScriptRunner.run(script, callback)
     }
 
     /**
-     * Joystick commands.
-     *
-     * @param x Move on the x axis from -1 to 1.
-     * @param y Move on the y axis from -1 to 1.
+     * Stop the running [MotionScript] before its next step.
      */
-    fun skidJoy(x: Float, y: Float) {
+    fun abortMotionScript() {
         sdkService?.let {
             try {
-                it.skidJoy(x, y)
+                it.abortMotionScript()
             } catch (e: RemoteException) {
-                Log.e(TAG, "skidJoy(float, float) (x=$x, y=$y)")
+                Log.e(TAG, "abortMotionScript() error.")
             }
         }
+        if (isLocalMotionScriptRunnerCreated) {
+            localMotionScriptRunner.abort()
+        }
     }
 
     /**
@@ -810,14 +1462,7 @@ class Robot private constructor(context: Context) {
      * @param degrees the degree amount you want the robot to turn
      */
     fun turnBy(degrees: Int) {
-        sdkService?.let {
-            try {
-                it.turnBy(degrees, 1.0f)
-            } catch (e: RemoteException) {
-                Log.e(TAG, "turnBy(int) (degrees=$degrees)")
-            }
-
-        }
+        sendCommand("turnBy(int) (degrees=$degrees)") { it.turnBy(degrees, 1.0f) }
     }
 
     /**
@@ -837,13 +1482,8 @@ class Robot private constructor(context: Context) {
      * @param degrees the degree which you want the robot to tilt to, between 55 and -25
      */
     fun tiltAngle(degrees: Int) {
-        sdkService?.let {
-            try {
-                it.tiltAngle(degrees, 1.0f)
-            } catch (e: RemoteException) {
-                Log.e(TAG, "turnBy(int) (degrees=$degrees)")
-            }
-
+        sendCommand("turnBy(int) (degrees=$degrees)", LATEST_KEY_TILT_ANGLE) {
+            it.tiltAngle(degrees, 1.0f)
         }
     }
 
@@ -864,14 +1504,7 @@ class Robot private constructor(context: Context) {
      * @param degrees The degree amount you want the robot to tilt
      */
     fun tiltBy(degrees: Int) {
-        sdkService?.let {
-            try {
-                it.tiltBy(degrees, 1.0f)
-            } catch (e: RemoteException) {
-                Log.e(TAG, "tiltBy(int) (degrees=$degrees)")
-            }
-
-        }
+        sendCommand("tiltBy(int) (degrees=$degrees)") { it.tiltBy(degrees, 1.0f) }
     }
 
     @UiThread
@@ -879,6 +1512,14 @@ class Robot private constructor(context: Context) {
         onBeWithMeStatusChangeListeners.add(listener)
     }
 
+    /**
+     * Same as [addOnBeWithMeStatusChangedListener],
+     * but callbacks are delivered on [executor] instead of the main thread.
+     */
+    fun addOnBeWithMeStatusChangedListener(executor: Executor, listener: OnBeWithMeStatusChangedListener) {
+        onBeWithMeStatusChangeListeners.add(listener, executor)
+    }
+
     @UiThread
     fun removeOnBeWithMeStatusChangedListener(listener: OnBeWithMeStatusChangedListener) {
         onBeWithMeStatusChangeListeners.remove(listener)
@@ -889,6 +1530,14 @@ class Robot private constructor(context: Context) {
         onConstraintBeWithStatusChangedListeners.add(listener)
     }
 
+    /**
+     * Same as [addOnConstraintBeWithStatusChangedListener],
+     * but callbacks are delivered on [executor] instead of the main thread.
+     */
+    fun addOnConstraintBeWithStatusChangedListener(executor: Executor, listener: OnConstraintBeWithStatusChangedListener) {
+        onConstraintBeWithStatusChangedListeners.add(listener, executor)
+    }
+
     @UiThread
     fun removeOnConstraintBeWithStatusChangedListener(listener: OnConstraintBeWithStatusChangedListener) {
         onConstraintBeWithStatusChangedListeners.remove(listener)
@@ -902,49 +1551,170 @@ class Robot private constructor(context: Context) {
      * Get the information of temi's admin.
      */
     val adminInfo: UserInfo?
-        get() {
-            sdkService?.let {
-                try {
-                    return it.adminInfo
-                } catch (e: RemoteException) {
-                    Log.e(TAG, "getAdminInfo() error.")
-                }
+        get() = stateStore.adminInfo.getOrLoad {
+            singleFlight.run("getAdminInfo()", ::fetchAdminInfo)
+        }
 
+    private fun fetchAdminInfo(): UserInfo? {
+        sdkService?.let {
+            try {
+                return it.adminInfo
+            } catch (e: RemoteException) {
+                Log.e(TAG, "getAdminInfo() error.")
             }
-            return null
         }
+        return null
+    }
 
     /**
      * Fetch all the temi contacts.
+     *
+     * Contacts are transferred in pages of [DEFAULT_PAGE_SIZE], so large address books do not
+     * exceed the Binder transaction size limit. If a page fails, the result is empty rather
+     * than truncated.
      */
     val allContact: List<UserInfo>
-        get() {
-            val contactList = ArrayList<UserInfo>()
-            sdkService?.let {
-                try {
-                    contactList.addAll(it.allContacts)
-                } catch (e: RemoteException) {
-                    Log.e(TAG, "getAllContacts() error.")
-                }
+        get() = ArrayList(singleFlight.run("getAllContacts()", ::fetchAllContacts).orEmpty())
 
-            }
-            return contactList
+    /**
+     * Fetch recent calls, transferred in pages of [DEFAULT_PAGE_SIZE], see [allContact].
+     */
+    val recentCalls: List<RecentCallModel>
+        get() = ArrayList(singleFlight.run("getRecentCalls()", ::fetchAllRecentCalls).orEmpty())
+
+    /**
+     * Contacts kept locally and updated by user updates, for lookups that would otherwise
+     * filter [allContact].
+     */
+    val contactDirectory: ContactDirectory by lazy {
+        callbackInterest.pin(CallbackInterest.USER_UPDATED)
+        isContactDirectoryCreated = true
+        ContactDirectory { singleFlight.run("getAllContacts()", ::fetchAllContacts) }
+    }
+
+    @Volatile
+    private var isContactDirectoryCreated = false
+
+    /**
+     * Call history kept locally and synced incrementally, for repeated or ranged queries
+     * that would otherwise download the whole history through [recentCalls].
+     */
+    val recentCallStore: RecentCallStore by lazy {
+        callbackInterest.pin(CallbackInterest.TELEPRESENCE_EVENT)
+        isRecentCallStoreCreated = true
+        RecentCallStore(::fetchRecentCallsSince)
+    }
+
+    @Volatile
+    private var isRecentCallStoreCreated = false
+
+    private fun fetchRecentCallsSince(sinceMillis: Long?): List<RecentCallModel>? {
+        val sdkService = sdkService ?: return null
+        if (sinceMillis == null) {
+            return fetchAllRecentCalls()
+        }
+        try {
+            return sdkService.getRecentCallsSince(sinceMillis) ?: emptyList()
+        } catch (e: RemoteException) {
+            Log.e(TAG, "getRecentCallsSince(long) error.")
+        }
+        return null
+    }
+
+    private fun onCallEnded() {
+        if (isRecentCallStoreCreated) {
+            recentCallStore.markStale()
+            ipcWorker.submit { recentCallStore.sync() }
         }
+    }
 
     /**
-     * Fetch recent calls.
+     * Lazily iterate over the temi contacts, [pageSize] at a time.
+     *
+     * Each page is requested from the launcher only when iteration reaches it, and the
+     * following page is prefetched in the background meanwhile. All pages come from one
+     * snapshot taken by the launcher when iteration starts, so contacts changing meanwhile are
+     * neither skipped nor repeated. The sequence may be iterated more than once, each time
+     * starting a new transfer.
+     *
+     * Iteration blocks on IPC, so do not iterate on the main thread.
+     *
+     * @throws PartialTransferException from the iterator if a page could not be fetched.
      */
-    val recentCalls: List<RecentCallModel>
-        get() {
-            sdkService?.let {
-                try {
-                    return it.recentCalls ?: ArrayList()
-                } catch (e: RemoteException) {
-                    Log.e(TAG, "getRecentCalls() error.")
-                }
-            }
-            return ArrayList()
+    @JvmOverloads
+    fun contactsSequence(pageSize: Int = DEFAULT_PAGE_SIZE): Sequence<UserInfo> {
+        return Sequence { PagedIterator(pageSize, { ipcWorker.submit(it) }, contactsSource) }
+    }
+
+    /**
+     * Lazily iterate over recent calls, same as [contactsSequence].
+     */
+    @JvmOverloads
+    fun recentCallsSequence(pageSize: Int = DEFAULT_PAGE_SIZE): Sequence<RecentCallModel> {
+        return Sequence { PagedIterator(pageSize, { ipcWorker.submit(it) }, recentCallsSource) }
+    }
+
+    /**
+     * @return All contacts, or `null` if the transfer failed.
+     */
+    private fun fetchAllContacts(): List<UserInfo>? {
+        return try {
+            PagedIterator(DEFAULT_PAGE_SIZE, null, contactsSource).asSequence().toList()
+        } catch (e: PartialTransferException) {
+            Log.e(TAG, "getAllContacts() error after ${e.transferredCount} contacts.")
+            null
+        }
+    }
+
+    /**
+     * @return All recent calls, or `null` if the transfer failed.
+     */
+    private fun fetchAllRecentCalls(): List<RecentCallModel>? {
+        return try {
+            PagedIterator(DEFAULT_PAGE_SIZE, null, recentCallsSource).asSequence().toList()
+        } catch (e: PartialTransferException) {
+            Log.e(TAG, "getRecentCalls() error after ${e.transferredCount} calls.")
+            null
         }
+    }
+
+    private fun connectedService(): ISdkService {
+        return sdkService ?: throw RemoteException("Not connected to the temi launcher.")
+    }
+
+    private val contactsSource = object : PagedSource<UserInfo> {
+
+        override fun openSnapshot(): String? = connectedService().openContactsSnapshot()
+
+        override fun fetchPage(snapshotToken: String, offset: Int, limit: Int): List<UserInfo> {
+            return connectedService().getContactsPage(snapshotToken, offset, limit).orEmpty()
+        }
+
+        override fun fetchAll(): List<UserInfo> = connectedService().allContacts.orEmpty()
+
+        override fun closeSnapshot(snapshotToken: String) {
+            connectedService().closeSnapshot(snapshotToken)
+        }
+    }
+
+    private val recentCallsSource = object : PagedSource<RecentCallModel> {
+
+        override fun openSnapshot(): String? = connectedService().openRecentCallsSnapshot()
+
+        override fun fetchPage(
+            snapshotToken: String,
+            offset: Int,
+            limit: Int
+        ): List<RecentCallModel> {
+            return connectedService().getRecentCallsPage(snapshotToken, offset, limit).orEmpty()
+        }
+
+        override fun fetchAll(): List<RecentCallModel> = connectedService().recentCalls.orEmpty()
+
+        override fun closeSnapshot(snapshotToken: String) {
+            connectedService().closeSnapshot(snapshotToken)
+        }
+    }
 
     /**
      * Start a video call to Admin.
@@ -974,7 +1744,29 @@ class Robot private constructor(context: Context) {
      * @param listener The listener you want to add.
      */
     fun addOnTelepresenceStatusChangedListener(listener: OnTelepresenceStatusChangedListener) {
-        onTelepresenceStatusChangedListeners.add(listener)
+        addTelepresenceStatusListener(listener, null)
+    }
+
+    /**
+     * Same as [addOnTelepresenceStatusChangedListener],
+     * but callbacks are delivered on [executor] instead of the main thread.
+     */
+    fun addOnTelepresenceStatusChangedListener(executor: Executor, listener: OnTelepresenceStatusChangedListener) {
+        addTelepresenceStatusListener(listener, executor)
+    }
+
+    private fun addTelepresenceStatusListener(
+        listener: OnTelepresenceStatusChangedListener,
+        executor: Executor?
+    ) {
+        listener.onKeysChanged = {
+            onTelepresenceStatusChangedListeners.updateKeys(
+                listener,
+                listOf(listener.sessionId),
+                executor
+            )
+        }
+        onTelepresenceStatusChangedListeners.add(listener, listOf(listener.sessionId), executor)
     }
 
     /**
@@ -983,6 +1775,7 @@ class Robot private constructor(context: Context) {
      * @param listener The listener you added before.
      */
     fun removeOnTelepresenceStatusChangedListener(listener: OnTelepresenceStatusChangedListener) {
+        listener.onKeysChanged = null
         onTelepresenceStatusChangedListeners.remove(listener)
     }
 
@@ -992,7 +1785,22 @@ class Robot private constructor(context: Context) {
      * @param listener The listener you want to add.
      */
     fun addOnUsersUpdatedListener(listener: OnUsersUpdatedListener) {
-        onUsersUpdatedListeners.add(listener)
+        addUsersUpdatedListener(listener, null)
+    }
+
+    /**
+     * Same as [addOnUsersUpdatedListener],
+     * but callbacks are delivered on [executor] instead of the main thread.
+     */
+    fun addOnUsersUpdatedListener(executor: Executor, listener: OnUsersUpdatedListener) {
+        addUsersUpdatedListener(listener, executor)
+    }
+
+    private fun addUsersUpdatedListener(listener: OnUsersUpdatedListener, executor: Executor?) {
+        listener.onKeysChanged = {
+            onUsersUpdatedListeners.updateKeys(listener, listener.userIds.orEmpty(), executor)
+        }
+        onUsersUpdatedListeners.add(listener, listener.userIds.orEmpty(), executor)
     }
 
     /**
@@ -1001,6 +1809,7 @@ class Robot private constructor(context: Context) {
      * @param listener The listener you added before.
      */
     fun removeOnUsersUpdatedListener(listener: OnUsersUpdatedListener) {
+        listener.onKeysChanged = null
         onUsersUpdatedListeners.remove(listener)
     }
 
@@ -1008,6 +1817,14 @@ class Robot private constructor(context: Context) {
         onTelepresenceEventChangedListener.add(listener)
     }
 
+    /**
+     * Same as [addOnTelepresenceEventChangedListener],
+     * but callbacks are delivered on [executor] instead of the main thread.
+     */
+    fun addOnTelepresenceEventChangedListener(executor: Executor, listener: OnTelepresenceEventChangedListener) {
+        onTelepresenceEventChangedListener.add(listener, executor)
+    }
+
     fun removeOnTelepresenceEventChangedListener(listener: OnTelepresenceEventChangedListener) {
         onTelepresenceEventChangedListener.remove(listener)
     }
@@ -1023,15 +1840,16 @@ class Robot private constructor(context: Context) {
      */
     val serialNumber: String?
         get() {
-            sdkService?.let {
-                try {
-                    return it.serialNumber
-                } catch (e: RemoteException) {
-                    Log.e(TAG, "getSerialNumber()")
+            return stateStore.serialNumber.getOrLoad {
+                sdkService?.let {
+                    try {
+                        return@getOrLoad it.serialNumber
+                    } catch (e: RemoteException) {
+                        Log.e(TAG, "getSerialNumber()")
+                    }
                 }
-
+                null
             }
-            return null
         }
 
     /**
@@ -1041,55 +1859,37 @@ class Robot private constructor(context: Context) {
      */
     val batteryData: BatteryData?
         get() {
-            sdkService?.let {
-                try {
-                    return it.batteryData
-                } catch (e: RemoteException) {
-                    Log.e(TAG, "getBatteryData() error.")
+            return stateStore.battery.getOrLoad {
+                sdkService?.let {
+                    try {
+                        return@getOrLoad it.batteryData
+                    } catch (e: RemoteException) {
+                        Log.e(TAG, "getBatteryData() error.")
+                    }
                 }
-
+                null
             }
-            return null
         }
 
     /**
      * Go to the App list of Launcher.
      */
     fun showAppList() {
-        sdkService?.let {
-            try {
-                it.showAppList()
-            } catch (e: RemoteException) {
-                Log.e(TAG, "showAppList() error.")
-            }
-
-        }
+        sendCommand("showAppList() error.") { it.showAppList() }
     }
 
     /**
      * Show the top bar of Launcher.
      */
     fun showTopBar() {
-        sdkService?.let {
-            try {
-                it.showTopBar()
-            } catch (e: RemoteException) {
-                Log.e(TAG, "showTopBar() error.")
-            }
-        }
+        sendCommand("showTopBar() error.", LATEST_KEY_TOP_BAR) { it.showTopBar() }
     }
 
     /**
      * Hide the top bar of Launcher.
      */
     fun hideTopBar() {
-        sdkService?.let {
-            try {
-                it.hideTopBar()
-            } catch (e: RemoteException) {
-                Log.e(TAG, "hideTopBar() error.")
-            }
-        }
+        sendCommand("hideTopBar() error.", LATEST_KEY_TOP_BAR) { it.hideTopBar() }
     }
 
     /**
@@ -1097,23 +1897,21 @@ class Robot private constructor(context: Context) {
      */
     var privacyMode: Boolean
         set(on) {
-            sdkService?.let {
-                try {
-                    it.togglePrivacyMode(on)
-                } catch (e: RemoteException) {
-                    Log.e(TAG, "togglePrivacyMode() error.")
-                }
+            sendCommand("togglePrivacyMode() error.", LATEST_KEY_PRIVACY_MODE) {
+                it.togglePrivacyMode(on)
             }
         }
         get() {
-            sdkService?.let {
-                try {
-                    return it.privacyModeState
-                } catch (e: RemoteException) {
-                    Log.e(TAG, "getPrivacyModeState() error.")
+            return stateStore.privacyMode.getOrLoad {
+                sdkService?.let {
+                    try {
+                        return@getOrLoad it.privacyModeState
+                    } catch (e: RemoteException) {
+                        Log.e(TAG, "getPrivacyModeState() error.")
+                    }
                 }
-            }
-            return false
+                null
+            } ?: false
         }
 
     /**
@@ -1121,23 +1919,22 @@ class Robot private constructor(context: Context) {
      */
     var isHardButtonsDisabled: Boolean
         set(disable) {
-            sdkService?.let {
-                try {
-                    it.toggleHardButtons(disable)
-                } catch (e: RemoteException) {
-                    Log.e(TAG, "isHardButtonsEnabled() - set - error")
-                }
+            sendCommand("isHardButtonsEnabled() - set - error", LATEST_KEY_HARD_BUTTONS) {
+                it.toggleHardButtons(disable)
+                stateStore.hardButtonsDisabled.update(disable)
             }
         }
         get() {
-            sdkService?.let {
-                try {
-                    return it.isHardButtonsDisabled
-                } catch (e: RemoteException) {
-                    Log.e(TAG, "isHardButtonsEnabled() - get - error")
+            return stateStore.hardButtonsDisabled.getOrLoad {
+                sdkService?.let {
+                    try {
+                        return@getOrLoad it.isHardButtonsDisabled
+                    } catch (e: RemoteException) {
+                        Log.e(TAG, "isHardButtonsEnabled() - get - error")
+                    }
                 }
-            }
-            return false
+                null
+            } ?: false
         }
 
     /**
@@ -1145,14 +1942,16 @@ class Robot private constructor(context: Context) {
      */
     val launcherVersion: String
         get() {
-            sdkService?.let {
-                try {
-                    return it.launcherVersion ?: ""
-                } catch (e: RemoteException) {
-                    Log.e(TAG, "getLauncherVersion() error")
+            return stateStore.launcherVersion.getOrLoad {
+                sdkService?.let {
+                    try {
+                        return@getOrLoad it.launcherVersion
+                    } catch (e: RemoteException) {
+                        Log.e(TAG, "getLauncherVersion() error")
+                    }
                 }
-            }
-            return ""
+                null
+            } ?: ""
         }
 
     /**
@@ -1160,15 +1959,67 @@ class Robot private constructor(context: Context) {
      */
     val roboxVersion: String
         get() {
-            sdkService?.let {
-                try {
-                    return it.roboxVersion ?: ""
-                } catch (e: RemoteException) {
-                    Log.e(TAG, "getRoboxVersion() error")
+            return stateStore.roboxVersion.getOrLoad {
+                sdkService?.let {
+                    try {
+                        return@getOrLoad it.roboxVersion
+                    } catch (e: RemoteException) {
+                        Log.e(TAG, "getRoboxVersion() error")
+                    }
                 }
+                null
+            } ?: ""
+        }
+
+    /**
+     * Read [serialNumber], [launcherVersion], [roboxVersion], [wakeupWord], [privacyMode],
+     * [isHardButtonsDisabled], [batteryData] and [adminInfo] at once.
+     *
+     * A single transaction is used when the launcher supports it, otherwise each value is
+     * requested separately. The state it carries also warms [stateStore].
+     *
+     * @return `null` if the SDK service is not connected.
+     */
+    fun snapshot(): RobotInfoSnapshot? {
+        val sdkService = sdkService ?: return null
+        try {
+            val snapshot = sdkService.robotInfoSnapshot
+            if (snapshot != null) {
+                warmStateStore(sdkService, snapshot)
+                return snapshot
+            }
+        } catch (e: RemoteException) {
+            Log.e(TAG, "getRobotInfoSnapshot() error.")
+        }
+        // Launchers without the snapshot call answer with an empty reply.
+        return RobotInfoSnapshot(
+            serialNumber,
+            launcherVersion,
+            roboxVersion,
+            wakeupWord,
+            privacyMode,
+            isHardButtonsDisabled,
+            batteryData,
+            adminInfo
+        )
+    }
+
+    private fun warmStateStore(sdkService: ISdkService, snapshot: RobotInfoSnapshot) {
+        synchronized(stateStore) {
+            if (this.sdkService !== sdkService) {
+                // Reconnected meanwhile, the snapshot belongs to the previous binding.
+                return
             }
-            return ""
+            snapshot.serialNumber?.let { stateStore.serialNumber.update(it) }
+            stateStore.launcherVersion.update(snapshot.launcherVersion)
+            stateStore.roboxVersion.update(snapshot.roboxVersion)
+            stateStore.wakeupWord.update(snapshot.wakeupWord)
+            snapshot.batteryData?.let { stateStore.battery.update(it) }
+            stateStore.privacyMode.update(snapshot.privacyMode)
+            stateStore.hardButtonsDisabled.update(snapshot.hardButtonsDisabled)
+            snapshot.adminInfo?.let { stateStore.adminInfo.update(it) }
         }
+    }
 
     @Throws(RemoteException::class)
     fun showNormalNotification(notification: NormalNotification) {
@@ -1183,10 +2034,24 @@ class Robot private constructor(context: Context) {
     fun showAlertNotification(
         notification: AlertNotification,
         notificationListener: NotificationListener
+    ) {
+        showAlertNotification(notification, mainThreadExecutor, notificationListener)
+    }
+
+    /**
+     * Same as [showAlertNotification],
+     * but the button callback is delivered on [executor] instead of the main thread.
+     */
+    @Throws(RemoteException::class)
+    fun showAlertNotification(
+        notification: AlertNotification,
+        executor: Executor,
+        notificationListener: NotificationListener
     ) {
         if (sdkService != null) {
             sdkService!!.showAlertNotification(notification)
-            listenersMap[notification.notificationId] = notificationListener
+            listenersMap[notification.notificationId] =
+                PendingNotification(notificationListener, executor)
         } else {
             throw RemoteException("Sdk service is null.")
         }
@@ -1201,19 +2066,83 @@ class Robot private constructor(context: Context) {
         }
     }
 
+    /**
+     * Decisions are cached until a permission result arrives for the permission or the
+     * service reconnects.
+     */
     fun checkSelfPermission(permission: Permission): Int {
         if (permission.isKioskPermission && !isMetaDataKiosk) {
             Log.w(TAG, "Only Kiosk App may have kiosk permissions")
             return DENIED
         }
-        sdkService?.let {
+        return stateStore.permissions.getValue(permission).getOrLoad {
+            sdkService?.let {
+                try {
+                    return@getOrLoad it.checkSelfPermission(
+                        applicationInfo.packageName,
+                        permission.value
+                    )
+                } catch (e: RemoteException) {
+                    Log.e(TAG, "checkSelfPermission() error.")
+                }
+            }
+            null
+        } ?: DENIED
+    }
+
+    /**
+     * Same as [checkSelfPermission] for several permissions, asking the launcher about the
+     * ones not cached yet in a single transaction.
+     *
+     * @return The decision for each of [permissions].
+     */
+    fun checkSelfPermissions(permissions: List<Permission>): Map<Permission, Int> {
+        val results = LinkedHashMap<Permission, Int>(permissions.size)
+        val uncached = mutableListOf<Permission>()
+        for (permission in permissions) {
+            val cached = if (permission.isKioskPermission && !isMetaDataKiosk) {
+                DENIED
+            } else {
+                stateStore.permissions.getValue(permission).peek()
+            }
+            if (cached != null) {
+                results[permission] = cached
+            } else if (permission !in uncached) {
+                uncached.add(permission)
+            }
+        }
+        if (uncached.isEmpty()) {
+            return results
+        }
+        val versions = uncached.map { stateStore.permissions.getValue(it).version }
+        val decisions = sdkService?.let {
             try {
-                return it.checkSelfPermission(applicationInfo.packageName, permission.value)
+                it.checkSelfPermissions(
+                    applicationInfo.packageName,
+                    uncached.map(Permission::value)
+                )
             } catch (e: RemoteException) {
-                Log.e(TAG, "checkSelfPermission() error.")
+                Log.e(TAG, "checkSelfPermissions() error.")
+                null
+            }
+        }
+        if (decisions == null || decisions.size != uncached.size) {
+            // Launchers without the batched call answer with an empty reply.
+            for (permission in uncached) {
+                results[permission] = checkSelfPermission(permission)
+            }
+            return results
+        }
+        for (i in uncached.indices) {
+            val entry = stateStore.permissions.getValue(uncached[i])
+            synchronized(entry) {
+                if (entry.version == versions[i]) {
+                    entry.update(decisions[i])
+                }
             }
+            results[uncached[i]] = entry.peek() ?: decisions[i]
         }
-        return DENIED
+        return results
     }
 
     fun requestPermissions(permissions: List<Permission>) {
@@ -1234,6 +2163,7 @@ class Robot private constructor(context: Context) {
                 continue
             }
             validPermissions.add(permission.value)
+            stateStore.permissions.getValue(permission).invalidate()
         }
         if (validPermissions.isEmpty()) {
             Log.w(TAG, "There is no valid permission in permissions.")
@@ -1253,6 +2183,14 @@ class Robot private constructor(context: Context) {
         onPrivacyModeStateChangedListeners.add(listener)
     }
 
+    /**
+     * Same as [addOnPrivacyModeStateChangedListener],
+     * but callbacks are delivered on [executor] instead of the main thread.
+     */
+    fun addOnPrivacyModeStateChangedListener(executor: Executor, listener: OnPrivacyModeChangedListener) {
+        onPrivacyModeStateChangedListeners.add(listener, executor)
+    }
+
     @UiThread
     fun removeOnPrivacyModeStateChangedListener(listener: OnPrivacyModeChangedListener) {
         onPrivacyModeStateChangedListeners.remove(listener)
@@ -1263,6 +2201,14 @@ class Robot private constructor(context: Context) {
         onBatteryStatusChangedListeners.add(listener)
     }
 
+    /**
+     * Same as [addOnBatteryStatusChangedListener],
+     * but callbacks are delivered on [executor] instead of the main thread.
+     */
+    fun addOnBatteryStatusChangedListener(executor: Executor, listener: OnBatteryStatusChangedListener) {
+        onBatteryStatusChangedListeners.add(listener, executor)
+    }
+
     @UiThread
     fun removeOnBatteryStatusChangedListener(listener: OnBatteryStatusChangedListener) {
         onBatteryStatusChangedListeners.remove(listener)
@@ -1273,6 +2219,14 @@ class Robot private constructor(context: Context) {
         onRequestPermissionResultListeners.add(listener)
     }
 
+    /**
+     * Same as [addOnRequestPermissionResultListener],
+     * but callbacks are delivered on [executor] instead of the main thread.
+     */
+    fun addOnRequestPermissionResultListener(executor: Executor, listener: OnRequestPermissionResultListener) {
+        onRequestPermissionResultListeners.add(listener, executor)
+    }
+
     @UiThread
     fun removeOnRequestPermissionResultListener(listener: OnRequestPermissionResultListener) {
         onRequestPermissionResultListeners.remove(listener)
@@ -1287,11 +2241,12 @@ class Robot private constructor(context: Context) {
      *
      * @return Value of the Metadata Kiosk.
      */
-    private val isMetaDataKiosk: Boolean
-        get() = applicationInfo.metaData != null && applicationInfo.metaData.getBoolean(
+    private val isMetaDataKiosk: Boolean by lazy {
+        applicationInfo.metaData != null && applicationInfo.metaData.getBoolean(
             SdkConstants.METADATA_KIOSK,
             false
         )
+    }
 
     /**
      * Toggle the wakeup trigger on and off
@@ -1299,18 +2254,11 @@ class Robot private constructor(context: Context) {
      * @param disable set true to disable the wakeup or false to enable it
      */
     fun toggleWakeup(disable: Boolean) {
-        sdkService?.let {
-            if (isMetaDataKiosk) {
-                try {
-                    it.toggleWakeup(disable)
-                } catch (e: RemoteException) {
-                    Log.e(TAG, "toggleWakeup() error.")
-                }
-
-            } else {
-                Log.e(TAG, "toggleWakeup() Wakeup can only be toggled in Kiosk Mode")
-            }
+        if (!isMetaDataKiosk) {
+            Log.e(TAG, "toggleWakeup() Wakeup can only be toggled in Kiosk Mode")
+            return
         }
+        sendCommand("toggleWakeup() error.", LATEST_KEY_WAKEUP) { it.toggleWakeup(disable) }
     }
 
     /**
@@ -1319,19 +2267,15 @@ class Robot private constructor(context: Context) {
      * @param hide set true to hide the billboard or false to display it
      */
     fun toggleNavigationBillboard(hide: Boolean) {
-        sdkService?.let {
-            if (isMetaDataKiosk) {
-                try {
-                    it.toggleNavigationBillboard(hide)
-                } catch (e: RemoteException) {
-                    Log.e(TAG, "toggleNavigationBillboard() error.")
-                }
-            } else {
-                Log.e(
-                    TAG,
-                    "toggleNavigationBillboard() Billboard can only be toggled in Kiosk Mode"
-                )
-            }
+        if (!isMetaDataKiosk) {
+            Log.e(
+                TAG,
+                "toggleNavigationBillboard() Billboard can only be toggled in Kiosk Mode"
+            )
+            return
+        }
+        sendCommand("toggleNavigationBillboard() error.", LATEST_KEY_NAVIGATION_BILLBOARD) {
+            it.toggleNavigationBillboard(hide)
         }
     }
 
@@ -1340,7 +2284,23 @@ class Robot private constructor(context: Context) {
     /*****************************************/
 
     fun setActivityStreamPublishListener(activityStreamPublishListener: ActivityStreamPublishListener?) {
+        setActivityStreamPublishListener(null, activityStreamPublishListener)
+    }
+
+    /**
+     * Same as [setActivityStreamPublishListener],
+     * but callbacks are delivered on [executor] instead of the binder thread.
+     */
+    fun setActivityStreamPublishListener(
+        executor: Executor?,
+        activityStreamPublishListener: ActivityStreamPublishListener?
+    ) {
+        activityStreamPublishExecutor = executor
         this.activityStreamPublishListener = activityStreamPublishListener
+        callbackInterest.update(
+            CallbackInterest.ACTIVITY_STREAM_PUBLISH,
+            activityStreamPublishListener != null
+        )
     }
 
     @Throws(RemoteException::class)
@@ -1362,11 +2322,22 @@ class Robot private constructor(context: Context) {
     /*****************************************/
 
     fun setMediaButtonListener(mediaButtonListener: MediaButtonListener) {
+        setMediaButtonListener(mainThreadExecutor, mediaButtonListener)
+    }
+
+    /**
+     * Same as [setMediaButtonListener],
+     * but callbacks are delivered on [executor] instead of the main thread.
+     */
+    fun setMediaButtonListener(executor: Executor, mediaButtonListener: MediaButtonListener) {
+        mediaButtonExecutor = executor
         this.mediaButtonListener = mediaButtonListener
+        callbackInterest.update(CallbackInterest.MEDIA_BUTTONS, true)
     }
 
     fun removeMediaButtonListener() {
         mediaButtonListener = null
+        callbackInterest.update(CallbackInterest.MEDIA_BUTTONS, false)
     }
 
     @Throws(RemoteException::class)
@@ -1394,6 +2365,14 @@ class Robot private constructor(context: Context) {
         onUserInteractionChangedListeners.add(listener)
     }
 
+    /**
+     * Same as [addOnUserInteractionChangedListener],
+     * but callbacks are delivered on [executor] instead of the main thread.
+     */
+    fun addOnUserInteractionChangedListener(executor: Executor, listener: OnUserInteractionChangedListener) {
+        onUserInteractionChangedListeners.add(listener, executor)
+    }
+
     @UiThread
     fun removeOnUserInteractionChangedListener(listener: OnUserInteractionChangedListener) {
         onUserInteractionChangedListeners.remove(listener)
@@ -1404,6 +2383,14 @@ class Robot private constructor(context: Context) {
         onDetectionStateChangedListeners.add(listener)
     }
 
+    /**
+     * Same as [addOnDetectionStateChangedListener],
+     * but callbacks are delivered on [executor] instead of the main thread.
+     */
+    fun addOnDetectionStateChangedListener(executor: Executor, listener: OnDetectionStateChangedListener) {
+        onDetectionStateChangedListeners.add(listener, executor)
+    }
+
     @Deprecated(
         "Use removeOnDetectionStateChangedListener(listener) instead.",
         ReplaceWith("this.removeOnDetectionStateChangedListener(listener)"),
@@ -1419,6 +2406,376 @@ class Robot private constructor(context: Context) {
         onDetectionStateChangedListeners.remove(listener)
     }
 
+    /*****************************************/
+    /*                 Async                 */
+    /*****************************************/
+
+    /*
+     * Non-blocking variants of the getters that need a Binder transaction. The transaction runs
+     * on a small SDK-owned worker pool; callback variants deliver on the given executor (main
+     * thread by default) and report a TimeoutException through IpcCallback.onError when the
+     * launcher does not answer in time, suspend variants throw TimeoutCancellationException.
+     */
+
+    /**
+     * Non-blocking [locations].
+     */
+    @JvmOverloads
+    fun getLocationsAsync(
+        callback: IpcCallback<List<String>>,
+        timeoutMillis: Long = DEFAULT_IPC_TIMEOUT_MILLIS,
+        executor: Executor = mainThreadExecutor
+    ) {
+        ipcWorker.execute("getLocations()", timeoutMillis, executor, callback) { locations }
+    }
+
+    /**
+     * Suspending [locations].
+     */
+    suspend fun awaitLocations(timeoutMillis: Long = DEFAULT_IPC_TIMEOUT_MILLIS): List<String> {
+        return ipcWorker.await(timeoutMillis) { locations }
+    }
+
+    /**
+     * Non-blocking [allContact].
+     */
+    @JvmOverloads
+    fun getAllContactAsync(
+        callback: IpcCallback<List<UserInfo>>,
+        timeoutMillis: Long = DEFAULT_IPC_TIMEOUT_MILLIS,
+        executor: Executor = mainThreadExecutor
+    ) {
+        ipcWorker.execute("getAllContacts()", timeoutMillis, executor, callback) { allContact }
+    }
+
+    /**
+     * Suspending [allContact].
+     */
+    suspend fun awaitAllContact(timeoutMillis: Long = DEFAULT_IPC_TIMEOUT_MILLIS): List<UserInfo> {
+        return ipcWorker.await(timeoutMillis) { allContact }
+    }
+
+    /**
+     * Non-blocking [recentCalls].
+     */
+    @JvmOverloads
+    fun getRecentCallsAsync(
+        callback: IpcCallback<List<RecentCallModel>>,
+        timeoutMillis: Long = DEFAULT_IPC_TIMEOUT_MILLIS,
+        executor: Executor = mainThreadExecutor
+    ) {
+        ipcWorker.execute("getRecentCalls()", timeoutMillis, executor, callback) { recentCalls }
+    }
+
+    /**
+     * Suspending [recentCalls].
+     */
+    suspend fun awaitRecentCalls(
+        timeoutMillis: Long = DEFAULT_IPC_TIMEOUT_MILLIS
+    ): List<RecentCallModel> {
+        return ipcWorker.await(timeoutMillis) { recentCalls }
+    }
+
+    /**
+     * Non-blocking [adminInfo].
+     */
+    @JvmOverloads
+    fun getAdminInfoAsync(
+        callback: IpcCallback<UserInfo?>,
+        timeoutMillis: Long = DEFAULT_IPC_TIMEOUT_MILLIS,
+        executor: Executor = mainThreadExecutor
+    ) {
+        ipcWorker.execute("getAdminInfo()", timeoutMillis, executor, callback) { adminInfo }
+    }
+
+    /**
+     * Suspending [adminInfo].
+     */
+    suspend fun awaitAdminInfo(timeoutMillis: Long = DEFAULT_IPC_TIMEOUT_MILLIS): UserInfo? {
+        return ipcWorker.await(timeoutMillis) { adminInfo }
+    }
+
+    /**
+     * Non-blocking [serialNumber].
+     */
+    @JvmOverloads
+    fun getSerialNumberAsync(
+        callback: IpcCallback<String?>,
+        timeoutMillis: Long = DEFAULT_IPC_TIMEOUT_MILLIS,
+        executor: Executor = mainThreadExecutor
+    ) {
+        ipcWorker.execute("getSerialNumber()", timeoutMillis, executor, callback) { serialNumber }
+    }
+
+    /**
+     * Suspending [serialNumber].
+     */
+    suspend fun awaitSerialNumber(timeoutMillis: Long = DEFAULT_IPC_TIMEOUT_MILLIS): String? {
+        return ipcWorker.await(timeoutMillis) { serialNumber }
+    }
+
+    /**
+     * Non-blocking [launcherVersion].
+     */
+    @JvmOverloads
+    fun getLauncherVersionAsync(
+        callback: IpcCallback<String>,
+        timeoutMillis: Long = DEFAULT_IPC_TIMEOUT_MILLIS,
+        executor: Executor = mainThreadExecutor
+    ) {
+        ipcWorker.execute("getLauncherVersion()", timeoutMillis, executor, callback) {
+            launcherVersion
+        }
+    }
+
+    /**
+     * Suspending [launcherVersion].
+     */
+    suspend fun awaitLauncherVersion(timeoutMillis: Long = DEFAULT_IPC_TIMEOUT_MILLIS): String {
+        return ipcWorker.await(timeoutMillis) { launcherVersion }
+    }
+
+    /**
+     * Non-blocking [snapshot].
+     */
+    @JvmOverloads
+    fun snapshotAsync(
+        callback: IpcCallback<RobotInfoSnapshot?>,
+        timeoutMillis: Long = DEFAULT_IPC_TIMEOUT_MILLIS,
+        executor: Executor = mainThreadExecutor
+    ) {
+        ipcWorker.execute("getRobotInfoSnapshot()", timeoutMillis, executor, callback) {
+            snapshot()
+        }
+    }
+
+    /**
+     * Suspending [snapshot].
+     */
+    suspend fun awaitSnapshot(
+        timeoutMillis: Long = DEFAULT_IPC_TIMEOUT_MILLIS
+    ): RobotInfoSnapshot? {
+        return ipcWorker.await(timeoutMillis) { snapshot() }
+    }
+
+    /**
+     * Non-blocking [checkSelfPermission].
+     */
+    @JvmOverloads
+    fun checkSelfPermissionAsync(
+        permission: Permission,
+        callback: IpcCallback<Int>,
+        timeoutMillis: Long = DEFAULT_IPC_TIMEOUT_MILLIS,
+        executor: Executor = mainThreadExecutor
+    ) {
+        ipcWorker.execute("checkSelfPermission()", timeoutMillis, executor, callback) {
+            checkSelfPermission(permission)
+        }
+    }
+
+    /**
+     * Suspending [checkSelfPermission].
+     */
+    suspend fun awaitSelfPermission(
+        permission: Permission,
+        timeoutMillis: Long = DEFAULT_IPC_TIMEOUT_MILLIS
+    ): Int {
+        return ipcWorker.await(timeoutMillis) { checkSelfPermission(permission) }
+    }
+
+    /**
+     * [goTo] reporting the outcome to [callback] once the robot reports a
+     * [OnGoToLocationStatusChangedListener.COMPLETE] or
+     * [OnGoToLocationStatusChangedListener.ABORT] status for [location]. A [TimeoutException]
+     * is reported instead if neither arrives within [timeoutMillis], and a [RemoteException]
+     * if the request could not be sent.
+     *
+     * Requests are matched to status events by location, so several requests for the same
+     * location complete together. A late final status from an earlier goto to the same
+     * location is told apart by the [OnGoToLocationStatusChangedListener.START] status the
+     * robot reports for each goto, so it does not complete a newer request.
+     */
+    @JvmOverloads
+    fun goToAsync(
+        location: String,
+        callback: IpcCallback<GoToStatusModel>,
+        timeoutMillis: Long = DEFAULT_GO_TO_TIMEOUT_MILLIS,
+        executor: Executor = mainThreadExecutor
+    ) {
+        val pending = goToTracker.track(location) { status ->
+            executor.execute(Runnable { callback.onResult(status) })
+        }
+        // Cancelled when the request completes, so it does not hold the callback until then.
+        pending.cancelOnDone(ipcWorker.schedule(timeoutMillis, Runnable {
+            if (goToTracker.remove(pending)) {
+                val error =
+                    TimeoutException("goTo($location) did not finish within $timeoutMillis ms")
+                executor.execute(Runnable { callback.onError(error) })
+            }
+        }))
+        val error = sendGoTo(location) ?: return
+        if (goToTracker.remove(pending)) {
+            executor.execute(Runnable { callback.onError(error) })
+        }
+    }
+
+    /**
+     * Suspending [goToAsync].
+     *
+     * @throws kotlinx.coroutines.TimeoutCancellationException if the robot does not report
+     * an outcome within [timeoutMillis].
+     */
+    suspend fun awaitGoTo(
+        location: String,
+        timeoutMillis: Long = DEFAULT_GO_TO_TIMEOUT_MILLIS
+    ): GoToStatusModel {
+        return withTimeout(timeoutMillis) {
+            suspendCancellableCoroutine<GoToStatusModel> { continuation ->
+                val pending = goToTracker.track(location) { continuation.resume(it) }
+                continuation.invokeOnCancellation { goToTracker.remove(pending) }
+                val error = sendGoTo(location)
+                if (error != null && goToTracker.remove(pending)) {
+                    continuation.resumeWithException(error)
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The error if the request could not be sent.
+     */
+    private fun sendGoTo(location: String): RemoteException? {
+        require(!TextUtils.isEmpty(location)) { "Location can not be null or empty." }
+        val sdkService = sdkService ?: return RemoteException("Sdk service is null.")
+        return try {
+            sdkService.goTo(location)
+            null
+        } catch (e: RemoteException) {
+            Log.e(TAG, "goTo(String) error.")
+            e
+        }
+    }
+
+    /*****************************************/
+    /*                 Flows                 */
+    /*****************************************/
+
+    /*
+     * Each collection registers its own listener on the binder thread and unregisters it when
+     * the collection ends. Events are buffered per collector according to overflow, so a slow
+     * collector never holds up the binder thread.
+     */
+
+    /**
+     * Battery updates, see [OnBatteryStatusChangedListener].
+     */
+    fun batteryFlow(
+        overflow: FlowOverflow = FlowOverflow.Conflate
+    ): Flow<BatteryData> = listenerFlow(overflow) { sink ->
+        val listener = object : OnBatteryStatusChangedListener {
+            override fun onBatteryStatusChanged(batteryData: BatteryData?) {
+                batteryData?.let(sink)
+            }
+        }
+        addOnBatteryStatusChangedListener(DIRECT_EXECUTOR, listener)
+        return@listenerFlow { removeOnBatteryStatusChangedListener(listener) }
+    }
+
+    /**
+     * Go to location status changes, see [OnGoToLocationStatusChangedListener].
+     */
+    fun goToStatusFlow(
+        overflow: FlowOverflow = FlowOverflow.Unbounded
+    ): Flow<GoToStatusModel> = listenerFlow(overflow) { sink ->
+        val listener = object : OnGoToLocationStatusChangedListener {
+            override fun onGoToLocationStatusChanged(
+                location: String,
+                status: String,
+                descriptionId: Int,
+                description: String
+            ) {
+                sink(GoToStatusModel(location, status, descriptionId, description))
+            }
+        }
+        addOnGoToLocationStatusChangedListener(DIRECT_EXECUTOR, listener)
+        return@listenerFlow { removeOnGoToLocationStatusChangedListener(listener) }
+    }
+
+    /**
+     * NLP results, see [NlpListener].
+     */
+    fun nlpFlow(
+        overflow: FlowOverflow = FlowOverflow.Unbounded
+    ): Flow<NlpResult> = listenerFlow(overflow) { sink ->
+        val listener = object : NlpListener {
+            override fun onNlpCompleted(nlpResult: NlpResult) {
+                sink(nlpResult)
+            }
+        }
+        addNlpListener(DIRECT_EXECUTOR, listener)
+        return@listenerFlow { removeNlpListener(listener) }
+    }
+
+    /**
+     * TTS status changes, see [TtsListener].
+     */
+    fun ttsStatusFlow(
+        overflow: FlowOverflow = FlowOverflow.Unbounded
+    ): Flow<TtsRequest> = listenerFlow(overflow) { sink ->
+        val listener = object : TtsListener {
+            override fun onTtsStatusChanged(ttsRequest: TtsRequest) {
+                sink(ttsRequest)
+            }
+        }
+        addTtsListener(DIRECT_EXECUTOR, listener)
+        return@listenerFlow { removeTtsListener(listener) }
+    }
+
+    /**
+     * ASR results, see [AsrListener].
+     */
+    fun asrFlow(
+        overflow: FlowOverflow = FlowOverflow.Unbounded
+    ): Flow<String> = listenerFlow(overflow) { sink ->
+        val listener = object : AsrListener {
+            override fun onAsrResult(asrResult: String) {
+                sink(asrResult)
+            }
+        }
+        addAsrListener(DIRECT_EXECUTOR, listener)
+        return@listenerFlow { removeAsrListener(listener) }
+    }
+
+    /**
+     * Saved locations, see [OnLocationsUpdatedListener].
+     */
+    fun locationsFlow(
+        overflow: FlowOverflow = FlowOverflow.Conflate
+    ): Flow<List<String>> = listenerFlow(overflow) { sink ->
+        val listener = object : OnLocationsUpdatedListener {
+            override fun onLocationsUpdated(locations: List<String>) {
+                sink(locations)
+            }
+        }
+        addOnLocationsUpdatedListener(DIRECT_EXECUTOR, listener)
+        return@listenerFlow { removeOnLocationsUpdateListener(listener) }
+    }
+
+    /**
+     * Detection state changes, see [OnDetectionStateChangedListener].
+     */
+    fun detectionStateFlow(
+        overflow: FlowOverflow = FlowOverflow.Conflate
+    ): Flow<Int> = listenerFlow(overflow) { sink ->
+        val listener = object : OnDetectionStateChangedListener {
+            override fun onDetectionStateChanged(state: Int) {
+                sink(state)
+            }
+        }
+        addOnDetectionStateChangedListener(DIRECT_EXECUTOR, listener)
+        return@listenerFlow { removeOnDetectionStateChangedListener(listener) }
+    }
+
     /*****************************************/
     /*               Interface               */
     /*****************************************/
@@ -1474,8 +2831,53 @@ class Robot private constructor(context: Context) {
 
         private val TAG = "Robot"
 
+        /**
+         * Runs callbacks directly on the binder thread that delivered the event.
+         * Listeners registered with it must be thread-safe and must not block.
+         */
+        @JvmField
+        val DIRECT_EXECUTOR = Executor { it.run() }
+
+        const val DEFAULT_IPC_TIMEOUT_MILLIS = 3000L
+
+        /**
+         * Number of items per transaction when fetching contacts and recent calls.
+         */
+        const val DEFAULT_PAGE_SIZE = 100
+
+        const val DEFAULT_JOYSTICK_RATE_HZ = 30
+
+        const val DEFAULT_GO_TO_TIMEOUT_MILLIS = 5 * 60 * 1000L
+
+        const val DEFAULT_PENDING_COMMAND_CAPACITY = 32
+
+        const val DEFAULT_PENDING_COMMAND_TTL_MILLIS = 10_000L
+
+        private const val LATEST_KEY_TILT_ANGLE = "tiltAngle"
+        private const val LATEST_KEY_TOP_BAR = "topBar"
+        private const val LATEST_KEY_PRIVACY_MODE = "privacyMode"
+        private const val LATEST_KEY_HARD_BUTTONS = "hardButtons"
+        private const val LATEST_KEY_WAKEUP = "wakeup"
+        private const val LATEST_KEY_NAVIGATION_BILLBOARD = "navigationBillboard"
+
+        /**
+         * One display frame at 60 Hz.
+         */
+        const val DEFAULT_MAIN_THREAD_IPC_BUDGET_MILLIS = 16L
+
         private var instance: Robot? = null
 
+        private fun applicationInfoOf(context: Context): ApplicationInfo {
+            val appContext = context.applicationContext
+            val packageName = appContext.packageName
+            val packageManager = appContext.packageManager
+            try {
+                return packageManager.getApplicationInfo(packageName, PackageManager.GET_META_DATA)
+            } catch (e: PackageManager.NameNotFoundException) {
+                throw RuntimeException(e)
+            }
+        }
+
         @JvmStatic
         fun getInstance(): Robot {
             if (instance == null) {
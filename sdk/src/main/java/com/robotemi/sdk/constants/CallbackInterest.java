@@ -0,0 +1,59 @@
+package com.robotemi.sdk.constants;
+
+/**
+ * Bits of the callback interest mask an app reports to the launcher through
+ * {@code ISdkService.setCallbackInterest(long)}. A set bit means the app currently has at least
+ * one listener for the corresponding {@code ISdkServiceCallback} method.
+ * <p>
+ * Two callbacks have no bit and are always delivered:
+ * <ul>
+ * <li>{@code onNotificationBtnClicked}, which only concerns notifications the app showed itself,
+ * so the app is always interested in it;</li>
+ * <li>{@code hasActiveNlpListeners}, which is a query answered by the app rather than an event.</li>
+ * </ul>
+ */
+public final class CallbackInterest {
+
+    public static final long WAKEUP_WORD = 1L;
+
+    public static final long TTS_STATUS = 1L << 1;
+
+    public static final long NLP = 1L << 2;
+
+    public static final long ASR = 1L << 3;
+
+    public static final long CONVERSATION_VIEW_ATTACHES = 1L << 4;
+
+    public static final long BE_WITH_ME_STATUS = 1L << 5;
+
+    public static final long GO_TO_LOCATION_STATUS = 1L << 6;
+
+    public static final long LOCATIONS_UPDATED = 1L << 7;
+
+    public static final long TELEPRESENCE_STATUS = 1L << 8;
+
+    public static final long USER_UPDATED = 1L << 9;
+
+    public static final long CONSTRAINT_BE_WITH_STATUS = 1L << 10;
+
+    public static final long USER_INTERACTION_STATUS = 1L << 11;
+
+    public static final long BATTERY_STATUS = 1L << 12;
+
+    public static final long PRIVACY_MODE_STATE = 1L << 13;
+
+    public static final long DETECTION_STATE = 1L << 14;
+
+    public static final long TELEPRESENCE_EVENT = 1L << 15;
+
+    public static final long REQUEST_PERMISSION_RESULT = 1L << 16;
+
+    public static final long MEDIA_BUTTONS = 1L << 17;
+
+    public static final long ACTIVITY_STREAM_PUBLISH = 1L << 18;
+
+    private CallbackInterest() {
+        super();
+        // private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,22 @@
+package com.robotemi.sdk.dispatch
+
+/**
+ * Delivery counters of one callback type.
+ */
+internal interface CallbackCounters {
+
+    /**
+     * Number of events that had at least one listener.
+     */
+    val dispatched: Long
+
+    /**
+     * Number of conflated values delivered.
+     */
+    val delivered: Long
+
+    /**
+     * Number of conflated values superseded before delivery.
+     */
+    val dropped: Long
+}
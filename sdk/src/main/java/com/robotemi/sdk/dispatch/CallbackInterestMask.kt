@@ -0,0 +1,44 @@
+package com.robotemi.sdk.dispatch
+
+/**
+ * Tracks which callbacks the app has listeners for, as a mask of
+ * [com.robotemi.sdk.constants.CallbackInterest] bits, and reports every change of the mask.
+ *
+ * Bits passed to [pin] stay set regardless of listeners, for callbacks the SDK consumes itself.
+ */
+internal class CallbackInterestMask(private val onChanged: (Long) -> Unit) {
+
+    private var listenerMask = 0L
+
+    private var pinnedMask = 0L
+
+    val value: Long
+        @Synchronized get() = listenerMask or pinnedMask
+
+    @Synchronized
+    fun update(bit: Long, isInterested: Boolean) {
+        val oldValue = value
+        listenerMask = if (isInterested) listenerMask or bit else listenerMask and bit.inv()
+        notifyIfChanged(oldValue)
+    }
+
+    @Synchronized
+    fun pin(bit: Long) {
+        val oldValue = value
+        pinnedMask = pinnedMask or bit
+        notifyIfChanged(oldValue)
+    }
+
+    private fun notifyIfChanged(oldValue: Long) {
+        val newValue = value
+        if (newValue != oldValue) {
+            onChanged(newValue)
+        }
+    }
+
+    /**
+     * @return Callback suitable for [ListenerSet], updating [bit] whenever the set
+     * becomes empty or non-empty.
+     */
+    fun bit(bit: Long): (Boolean) -> Unit = { isInterested -> update(bit, isInterested) }
+}
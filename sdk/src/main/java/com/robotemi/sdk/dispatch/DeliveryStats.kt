@@ -0,0 +1,10 @@
+package com.robotemi.sdk.dispatch
+
+/**
+ * Counters of callback delivery.
+ *
+ * @param delivered Number of conflated state values handed to listeners.
+ * @param dropped Number of conflated state values replaced by a newer one before delivery.
+ * @param dispatched Number of events that had at least one listener to be delivered to.
+ */
+data class DeliveryStats(val delivered: Long, val dropped: Long, val dispatched: Long = 0)
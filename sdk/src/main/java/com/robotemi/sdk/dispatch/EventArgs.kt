@@ -0,0 +1,37 @@
+package com.robotemi.sdk.dispatch
+
+/**
+ * Reusable carrier of callback arguments.
+ *
+ * Primitive arguments have their own slots so they are never boxed. Carriers are pooled by
+ * [ListenerSet] and cleared once delivered, so listeners must not keep a reference to them.
+ */
+internal open class EventArgs {
+
+    @JvmField
+    var obj0: Any? = null
+
+    @JvmField
+    var obj1: Any? = null
+
+    @JvmField
+    var obj2: Any? = null
+
+    @JvmField
+    var int0: Int = 0
+
+    @JvmField
+    var bool0: Boolean = false
+
+    fun set(obj0: Any?, obj1: Any?, obj2: Any?, int0: Int, bool0: Boolean) {
+        this.obj0 = obj0
+        this.obj1 = obj1
+        this.obj2 = obj2
+        this.int0 = int0
+        this.bool0 = bool0
+    }
+
+    fun clear() {
+        set(null, null, null, 0, false)
+    }
+}
@@ -0,0 +1,121 @@
+package com.robotemi.sdk.dispatch
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Listeners indexed by the keys they are interested in, such as user IDs or session IDs.
+ *
+ * Matching happens on the calling thread, so an event is only handed to the main thread
+ * (or to a listener's executor) when some listener actually matches its key. Listeners
+ * registered without keys match every event.
+ *
+ * [onInterestChanged] has the same meaning as for [ListenerSet].
+ */
+internal class KeyedListenerSet<K : Any, T : Any>(
+    private val mainExecutor: Executor,
+    private val onInterestChanged: ((Boolean) -> Unit)? = null
+) : CallbackCounters {
+
+    private val unkeyedListeners = ListenerSet<T>(mainExecutor)
+
+    private val listenersByKey = ConcurrentHashMap<K, ListenerSet<T>>()
+
+    private val keysByListener = ConcurrentHashMap<T, Collection<K>>()
+
+    private val dispatchedCount = AtomicLong()
+
+    override val dispatched: Long
+        get() = dispatchedCount.get()
+
+    override val delivered: Long
+        get() = 0
+
+    override val dropped: Long
+        get() = 0
+
+    fun isEmpty() = keysByListener.isEmpty()
+
+    fun isNotEmpty() = keysByListener.isNotEmpty()
+
+    /**
+     * Register [listener] for events of the given [keys], or for every event when [keys]
+     * is empty. The keys are captured at registration time, see [updateKeys].
+     */
+    @Synchronized
+    fun add(listener: T, keys: Collection<K>, executor: Executor?) {
+        removeListener(listener)
+        val wasEmpty = keysByListener.isEmpty()
+        val keySet = keys.toHashSet()
+        keysByListener[listener] = keySet
+        if (keySet.isEmpty()) {
+            unkeyedListeners.add(listener, executor)
+        } else {
+            for (key in keySet) {
+                listenersByKey.getOrPut(key) { ListenerSet(mainExecutor) }.add(listener, executor)
+            }
+        }
+        if (wasEmpty) {
+            onInterestChanged?.invoke(true)
+        }
+    }
+
+    /**
+     * Re-index [listener] under new [keys] if it is still registered.
+     */
+    @Synchronized
+    fun updateKeys(listener: T, keys: Collection<K>, executor: Executor?) {
+        if (keysByListener.containsKey(listener)) {
+            add(listener, keys, executor)
+        }
+    }
+
+    @Synchronized
+    fun remove(listener: T): Boolean {
+        val isRemoved = removeListener(listener)
+        if (isRemoved && keysByListener.isEmpty()) {
+            onInterestChanged?.invoke(false)
+        }
+        return isRemoved
+    }
+
+    private fun removeListener(listener: T): Boolean {
+        val keys = keysByListener.remove(listener) ?: return false
+        if (keys.isEmpty()) {
+            unkeyedListeners.remove(listener)
+            return true
+        }
+        for (key in keys) {
+            val listeners = listenersByKey[key] ?: continue
+            listeners.remove(listener)
+            if (listeners.isEmpty()) {
+                listenersByKey.remove(key)
+            }
+        }
+        return true
+    }
+
+    /**
+     * Deliver an event for [key] to the listeners registered for it and to the unkeyed ones.
+     * Arguments are passed as in [ListenerSet.dispatch].
+     *
+     * @return `false` if there are no listeners at all.
+     */
+    fun dispatch(
+        key: K?,
+        obj0: Any? = null,
+        int0: Int = 0,
+        deliverer: (T, EventArgs) -> Unit
+    ): Boolean {
+        unkeyedListeners.dispatch(obj0 = obj0, int0 = int0, deliverer = deliverer)
+        if (key != null) {
+            listenersByKey[key]?.dispatch(obj0 = obj0, int0 = int0, deliverer = deliverer)
+        }
+        if (isEmpty()) {
+            return false
+        }
+        dispatchedCount.incrementAndGet()
+        return true
+    }
+}
@@ -0,0 +1,84 @@
+package com.robotemi.sdk.dispatch
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.Executor
+
+/**
+ * Single place where the listener sets of every callback type are declared.
+ *
+ * Each set is created with its [com.robotemi.sdk.constants.CallbackInterest] bit, which wires
+ * it to [callbackInterest], to the main-thread executor and to the delivery counters.
+ *
+ * This covers dispatching only. A new callback still needs its public add and remove methods
+ * on [com.robotemi.sdk.Robot], which are one-line delegations to the set kept for API
+ * compatibility, and a forwarding method in the one-way AIDL callback stub, since the two
+ * generated stubs cannot share an implementation.
+ */
+internal class ListenerRegistry(
+    private val mainExecutor: Executor,
+    private val callbackInterest: CallbackInterestMask
+) {
+
+    private val countersByInterest = ConcurrentHashMap<Long, CallbackCounters>()
+
+    private val stateListenerSets = CopyOnWriteArrayList<ListenerSet<*>>()
+
+    /**
+     * Whether state listener sets conflate their values.
+     */
+    @Volatile
+    var conflateStates = false
+        set(value) {
+            field = value
+            for (listenerSet in stateListenerSets) {
+                listenerSet.isConflated = value
+            }
+        }
+
+    /**
+     * @param interestBit [com.robotemi.sdk.constants.CallbackInterest] bit of the callback.
+     * @param isState Whether events are states which may be conflated.
+     */
+    fun <T : Any> listeners(interestBit: Long, isState: Boolean = false): ListenerSet<T> {
+        val listenerSet = ListenerSet<T>(mainExecutor, callbackInterest.bit(interestBit))
+        if (isState) {
+            listenerSet.isConflated = conflateStates
+            stateListenerSets.add(listenerSet)
+        }
+        countersByInterest[interestBit] = listenerSet
+        return listenerSet
+    }
+
+    /**
+     * Listeners of events the SDK derives from other callbacks. Their interest is tracked
+     * by the source callback, so the set has no bit and no counters of its own.
+     */
+    fun <T : Any> derivedListeners(): ListenerSet<T> = ListenerSet(mainExecutor)
+
+    fun <K : Any, T : Any> keyedListeners(interestBit: Long): KeyedListenerSet<K, T> {
+        val listenerSet = KeyedListenerSet<K, T>(mainExecutor, callbackInterest.bit(interestBit))
+        countersByInterest[interestBit] = listenerSet
+        return listenerSet
+    }
+
+    fun stats(interestBit: Long): DeliveryStats {
+        val counters = countersByInterest[interestBit] ?: return DeliveryStats(0, 0, 0)
+        return DeliveryStats(counters.delivered, counters.dropped, counters.dispatched)
+    }
+
+    /**
+     * Stats summed over all state listener sets.
+     */
+    fun stateStats(): DeliveryStats {
+        var delivered = 0L
+        var dropped = 0L
+        var dispatched = 0L
+        for (listenerSet in stateListenerSets) {
+            delivered += listenerSet.delivered
+            dropped += listenerSet.dropped
+            dispatched += listenerSet.dispatched
+        }
+        return DeliveryStats(delivered, dropped, dispatched)
+    }
+}
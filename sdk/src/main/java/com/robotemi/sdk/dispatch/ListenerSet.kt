@@ -0,0 +1,387 @@
+package com.robotemi.sdk.dispatch
+
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+ * Thread-safe set of listeners where each listener may be bound to its own [Executor].
+ *
+ * Listeners registered without an executor are delivered on [mainExecutor], all of them
+ * within a single posted task per event, so adding more main-thread listeners does not add
+ * more main-thread wakeups.
+ *
+ * State-like events can be sent through [dispatchLatest] instead of [dispatch], in which case
+ * a value that is still waiting for its executor is replaced by the newer one. [dispatchState]
+ * picks between the two according to [isConflated]. Both have [Int] and [Boolean] overloads
+ * which carry the value in [EventArgs.int0] and [EventArgs.bool0] instead of boxing it.
+ *
+ * Dispatching does not allocate in steady state: listeners are kept in a copy-on-write list
+ * iterated by index, event arguments travel in pooled [EventArgs] carriers which are also the
+ * tasks handed to executors, and deliverers are expected to be non-capturing lambdas.
+ *
+ * [onInterestChanged] is invoked with `true` when the set gains its first listener and with
+ * `false` when it loses its last one.
+ */
+internal class ListenerSet<T : Any>(
+    private val mainExecutor: Executor,
+    private val onInterestChanged: ((Boolean) -> Unit)? = null
+) : CallbackCounters {
+
+    private class Registration<T>(val listener: T, val executor: Executor?) {
+        val pending = AtomicReference<Any?>()
+        val pendingPrimitive = AtomicLong(NO_PRIMITIVE)
+    }
+
+    /**
+     * Replaced, never mutated, on every change.
+     */
+    @Volatile
+    private var registrations: List<Registration<T>> = emptyList()
+
+    private val mainThreadPending = AtomicReference<Any?>()
+
+    private val mainThreadPendingPrimitive = AtomicLong(NO_PRIMITIVE)
+
+    private val dispatchedCount = AtomicLong()
+
+    private val deliveredCount = AtomicLong()
+
+    private val droppedCount = AtomicLong()
+
+    private val taskPool = ArrayList<DeliveryTask>(TASK_POOL_SIZE)
+
+    /**
+     * Whether [dispatchState] conflates values.
+     */
+    @Volatile
+    var isConflated = false
+
+    override val dispatched: Long
+        get() = dispatchedCount.get()
+
+    /**
+     * Number of values delivered through [dispatchLatest].
+     */
+    override val delivered: Long
+        get() = deliveredCount.get()
+
+    /**
+     * Number of values passed to [dispatchLatest] that were superseded before delivery.
+     */
+    override val dropped: Long
+        get() = droppedCount.get()
+
+    val size: Int
+        get() = registrations.size
+
+    fun isEmpty() = registrations.isEmpty()
+
+    fun isNotEmpty() = registrations.isNotEmpty()
+
+    /**
+     * Register [listener] for delivery on the main thread.
+     */
+    fun add(listener: T) {
+        add(listener, null)
+    }
+
+    /**
+     * Register [listener] for delivery on [executor], or on the main thread when it is `null`.
+     * Registering the same listener again replaces its executor.
+     */
+    @Synchronized
+    fun add(listener: T, executor: Executor?) {
+        val wasEmpty = registrations.isEmpty()
+        val newRegistrations = ArrayList<Registration<T>>(registrations.size + 1)
+        for (registration in registrations) {
+            if (registration.listener != listener) {
+                newRegistrations.add(registration)
+            }
+        }
+        newRegistrations.add(Registration(listener, executor))
+        registrations = newRegistrations
+        if (wasEmpty) {
+            onInterestChanged?.invoke(true)
+        }
+    }
+
+    @Synchronized
+    fun remove(listener: T): Boolean {
+        val newRegistrations = registrations.filter { it.listener != listener }
+        if (newRegistrations.size == registrations.size) {
+            return false
+        }
+        registrations = newRegistrations
+        if (newRegistrations.isEmpty()) {
+            onInterestChanged?.invoke(false)
+        }
+        return true
+    }
+
+    /**
+     * Deliver an event to every registered listener. The arguments reach [deliverer] through
+     * the [EventArgs] slots of the same name.
+     *
+     * @return `false` if there was nobody to deliver to.
+     */
+    fun dispatch(
+        obj0: Any? = null,
+        obj1: Any? = null,
+        obj2: Any? = null,
+        int0: Int = 0,
+        bool0: Boolean = false,
+        deliverer: (T, EventArgs) -> Unit
+    ): Boolean {
+        val registrations = registrations
+        var hasMainThreadListeners = false
+        for (i in 0 until registrations.size) {
+            val registration = registrations[i]
+            val executor = registration.executor
+            if (executor == null) {
+                hasMainThreadListeners = true
+            } else {
+                val task = obtainTask(registration, deliverer, LATEST_NONE)
+                task.set(obj0, obj1, obj2, int0, bool0)
+                execute(executor, task)
+            }
+        }
+        if (hasMainThreadListeners) {
+            val task = obtainTask(null, deliverer, LATEST_NONE)
+            task.set(obj0, obj1, obj2, int0, bool0)
+            execute(mainExecutor, task)
+        }
+        return countDispatch(registrations)
+    }
+
+    /**
+     * Deliver a state [value], conflated when [isConflated] is set. In both cases [deliverer]
+     * receives the value in [EventArgs.obj0].
+     */
+    fun dispatchState(value: Any, deliverer: (T, EventArgs) -> Unit): Boolean {
+        return if (isConflated) {
+            dispatchLatest(value, deliverer)
+        } else {
+            dispatch(obj0 = value, deliverer = deliverer)
+        }
+    }
+
+    /**
+     * [dispatchState] for an [Int] value, received in [EventArgs.int0].
+     */
+    fun dispatchState(value: Int, deliverer: (T, EventArgs) -> Unit): Boolean {
+        return if (isConflated) {
+            dispatchLatest(value, deliverer)
+        } else {
+            dispatch(int0 = value, deliverer = deliverer)
+        }
+    }
+
+    /**
+     * [dispatchState] for a [Boolean] value, received in [EventArgs.bool0].
+     */
+    fun dispatchState(value: Boolean, deliverer: (T, EventArgs) -> Unit): Boolean {
+        return if (isConflated) {
+            dispatchLatest(value, deliverer)
+        } else {
+            dispatch(bool0 = value, deliverer = deliverer)
+        }
+    }
+
+    /**
+     * Deliver [value] to every registered listener, conflating it with any value of the same
+     * set that is still queued, so listeners only ever observe the latest one. [deliverer]
+     * receives the value in [EventArgs.obj0].
+     *
+     * @return `false` if there was nobody to deliver to.
+     */
+    fun dispatchLatest(value: Any, deliverer: (T, EventArgs) -> Unit): Boolean {
+        val registrations = registrations
+        var hasMainThreadListeners = false
+        for (i in 0 until registrations.size) {
+            val registration = registrations[i]
+            val executor = registration.executor
+            if (executor == null) {
+                hasMainThreadListeners = true
+            } else if (offerLatest(registration.pending, value)) {
+                execute(executor, obtainTask(registration, deliverer, LATEST_OBJECT))
+            }
+        }
+        if (hasMainThreadListeners && offerLatest(mainThreadPending, value)) {
+            execute(mainExecutor, obtainTask(null, deliverer, LATEST_OBJECT))
+        }
+        return countDispatch(registrations)
+    }
+
+    /**
+     * [dispatchLatest] for an [Int] value, received in [EventArgs.int0].
+     */
+    fun dispatchLatest(value: Int, deliverer: (T, EventArgs) -> Unit): Boolean {
+        return dispatchLatestPrimitive(value.toLong(), deliverer)
+    }
+
+    /**
+     * [dispatchLatest] for a [Boolean] value, received in [EventArgs.bool0].
+     */
+    fun dispatchLatest(value: Boolean, deliverer: (T, EventArgs) -> Unit): Boolean {
+        return dispatchLatestPrimitive(if (value) 1L else 0L, deliverer)
+    }
+
+    /**
+     * Primitive values share one [AtomicLong] slot per executor. [NO_PRIMITIVE] lies outside
+     * the [Int] range, so it never collides with a real value.
+     */
+    private fun dispatchLatestPrimitive(value: Long, deliverer: (T, EventArgs) -> Unit): Boolean {
+        val registrations = registrations
+        var hasMainThreadListeners = false
+        for (i in 0 until registrations.size) {
+            val registration = registrations[i]
+            val executor = registration.executor
+            if (executor == null) {
+                hasMainThreadListeners = true
+            } else if (offerLatest(registration.pendingPrimitive, value)) {
+                execute(executor, obtainTask(registration, deliverer, LATEST_PRIMITIVE))
+            }
+        }
+        if (hasMainThreadListeners && offerLatest(mainThreadPendingPrimitive, value)) {
+            execute(mainExecutor, obtainTask(null, deliverer, LATEST_PRIMITIVE))
+        }
+        return countDispatch(registrations)
+    }
+
+    private fun countDispatch(registrations: List<Registration<T>>): Boolean {
+        if (registrations.isEmpty()) {
+            return false
+        }
+        dispatchedCount.incrementAndGet()
+        return true
+    }
+
+    /**
+     * @return `true` if the slot was empty and a delivery task has to be scheduled.
+     */
+    private fun offerLatest(slot: AtomicReference<Any?>, value: Any): Boolean {
+        if (slot.getAndSet(value) == null) {
+            return true
+        }
+        droppedCount.incrementAndGet()
+        return false
+    }
+
+    private fun offerLatest(slot: AtomicLong, value: Long): Boolean {
+        if (slot.getAndSet(value) == NO_PRIMITIVE) {
+            return true
+        }
+        droppedCount.incrementAndGet()
+        return false
+    }
+
+    /**
+     * Hands [task] to [executor]. If the executor refuses it, for instance with a
+     * [java.util.concurrent.RejectedExecutionException] after shutdown, the pending slot the
+     * task would have drained is emptied so that later values schedule a new task instead of
+     * waiting forever behind the lost one, and the task goes back to the pool.
+     */
+    private fun execute(executor: Executor, task: DeliveryTask) {
+        try {
+            executor.execute(task)
+        } catch (e: RuntimeException) {
+            val registration = task.registration
+            if (task.latest == LATEST_OBJECT) {
+                (registration?.pending ?: mainThreadPending).set(null)
+            } else if (task.latest == LATEST_PRIMITIVE) {
+                (registration?.pendingPrimitive ?: mainThreadPendingPrimitive).set(NO_PRIMITIVE)
+            }
+            recycleTask(task)
+            throw e
+        }
+    }
+
+    private fun obtainTask(
+        registration: Registration<T>?,
+        deliverer: (T, EventArgs) -> Unit,
+        latest: Int
+    ): DeliveryTask {
+        val task = synchronized(taskPool) {
+            if (taskPool.isEmpty()) null else taskPool.removeAt(taskPool.size - 1)
+        } ?: DeliveryTask()
+        task.registration = registration
+        task.deliverer = deliverer
+        task.latest = latest
+        return task
+    }
+
+    private fun recycleTask(task: DeliveryTask) {
+        task.registration = null
+        task.deliverer = null
+        task.clear()
+        synchronized(taskPool) {
+            if (taskPool.size < TASK_POOL_SIZE) {
+                taskPool.add(task)
+            }
+        }
+    }
+
+    /**
+     * Delivers one event either to a single executor-bound listener or, when [registration]
+     * is `null`, to all main-thread listeners.
+     */
+    private inner class DeliveryTask : EventArgs(), Runnable {
+
+        var registration: Registration<T>? = null
+
+        var deliverer: ((T, EventArgs) -> Unit)? = null
+
+        /**
+         * Which pending slot holds the value: [LATEST_NONE] when it was set on the task itself.
+         */
+        var latest = LATEST_NONE
+
+        override fun run() {
+            val registration = registration
+            val deliverer = deliverer!!
+            try {
+                if (latest == LATEST_OBJECT) {
+                    val value = (registration?.pending ?: mainThreadPending).getAndSet(null)
+                        ?: return
+                    obj0 = value
+                    deliveredCount.incrementAndGet()
+                } else if (latest == LATEST_PRIMITIVE) {
+                    val slot = registration?.pendingPrimitive ?: mainThreadPendingPrimitive
+                    val value = slot.getAndSet(NO_PRIMITIVE)
+                    if (value == NO_PRIMITIVE) {
+                        return
+                    }
+                    int0 = value.toInt()
+                    bool0 = value != 0L
+                    deliveredCount.incrementAndGet()
+                }
+                if (registration != null) {
+                    deliverer(registration.listener, this)
+                    return
+                }
+                val registrations = registrations
+                for (i in 0 until registrations.size) {
+                    val mainThreadRegistration = registrations[i]
+                    if (mainThreadRegistration.executor == null) {
+                        deliverer(mainThreadRegistration.listener, this)
+                    }
+                }
+            } finally {
+                recycleTask(this)
+            }
+        }
+    }
+
+    private companion object {
+        const val TASK_POOL_SIZE = 16
+
+        const val NO_PRIMITIVE = Long.MIN_VALUE
+
+        const val LATEST_NONE = 0
+
+        const val LATEST_OBJECT = 1
+
+        const val LATEST_PRIMITIVE = 2
+    }
+}
@@ -0,0 +1,183 @@
+package com.robotemi.sdk.dispatch
+
+import android.os.Handler
+import android.os.Looper
+import android.view.Choreographer
+import java.util.concurrent.Executor
+
+/**
+ * [Executor] running tasks on the main thread.
+ *
+ * By default every task is posted to the main looper on its own. When [isFrameAligned] is set,
+ * tasks are collected instead and run together, in submission order, from a single
+ * [Choreographer] frame callback, so events arriving within one vsync interval are handled
+ * in one main-loop iteration and land in the same frame. Frames are not produced while the
+ * display is off, so a batch is also drained by a delayed handler message if no frame comes
+ * within [FRAME_FALLBACK_MILLIS].
+ *
+ * Tasks always run in submission order, including across changes of [isFrameAligned]: a batch
+ * still waiting for its frame when alignment is turned off is posted right away, and tasks
+ * submitted before it has run join it instead of overtaking it.
+ */
+internal class MainThreadExecutor(private val scheduler: Scheduler) : Executor {
+
+    /**
+     * Main-looper primitives the executor is built on, replaced in tests.
+     */
+    internal interface Scheduler {
+        fun post(task: Runnable)
+
+        fun postDelayed(task: Runnable, delayMillis: Long)
+
+        fun removeCallbacks(task: Runnable)
+
+        /**
+         * @return `false` if no [Choreographer] is available yet.
+         */
+        fun postFrameCallback(callback: Choreographer.FrameCallback): Boolean
+
+        fun removeFrameCallback(callback: Choreographer.FrameCallback)
+    }
+
+    constructor(handler: Handler) : this(HandlerScheduler(handler))
+
+    @Volatile
+    var isFrameAligned = false
+        set(value) {
+            field = value
+            if (!value) {
+                flushPendingTasks()
+            }
+        }
+
+    private val lock = Any()
+
+    private var pendingTasks = ArrayList<Runnable>()
+
+    private var runningTasks = ArrayList<Runnable>()
+
+    /**
+     * Whether [pendingTasks] holds a batch that has not been drained yet.
+     */
+    @Volatile
+    private var isFrameScheduled = false
+
+    private val frameCallback = Choreographer.FrameCallback { runPendingTasks() }
+
+    private val pendingTasksRunnable = Runnable { runPendingTasks() }
+
+    override fun execute(command: Runnable) {
+        if (!isFrameAligned && !isFrameScheduled) {
+            scheduler.post(command)
+            return
+        }
+        var shouldPost = false
+        var shouldScheduleFrame = false
+        synchronized(lock) {
+            if (isFrameAligned || isFrameScheduled) {
+                pendingTasks.add(command)
+                shouldScheduleFrame = !isFrameScheduled
+                isFrameScheduled = true
+            } else {
+                // The batch was drained in the meantime, nothing left to queue behind.
+                shouldPost = true
+            }
+        }
+        if (shouldPost) {
+            scheduler.post(command)
+        } else if (shouldScheduleFrame) {
+            if (scheduler.postFrameCallback(frameCallback)) {
+                scheduler.postDelayed(pendingTasksRunnable, FRAME_FALLBACK_MILLIS)
+            } else {
+                scheduler.post(pendingTasksRunnable)
+            }
+        }
+    }
+
+    /**
+     * Posts the pending batch without waiting for its frame.
+     */
+    private fun flushPendingTasks() {
+        if (!isFrameScheduled) {
+            return
+        }
+        scheduler.removeFrameCallback(frameCallback)
+        scheduler.removeCallbacks(pendingTasksRunnable)
+        scheduler.post(pendingTasksRunnable)
+    }
+
+    /**
+     * Runs every task of the batch even if some of them throw, then rethrows the first
+     * failure with the others attached as suppressed exceptions.
+     */
+    private fun runPendingTasks() {
+        // Whichever of the frame callback and the fallback message comes first drains the batch.
+        scheduler.removeFrameCallback(frameCallback)
+        scheduler.removeCallbacks(pendingTasksRunnable)
+        val tasks: ArrayList<Runnable>
+        synchronized(lock) {
+            tasks = pendingTasks
+            pendingTasks = runningTasks
+            runningTasks = tasks
+            isFrameScheduled = false
+        }
+        var failure: Throwable? = null
+        for (i in 0 until tasks.size) {
+            try {
+                tasks[i].run()
+            } catch (e: Throwable) {
+                if (failure == null) {
+                    failure = e
+                } else {
+                    failure.addSuppressed(e)
+                }
+            }
+        }
+        tasks.clear()
+        failure?.let { throw it }
+    }
+
+    private class HandlerScheduler(private val handler: Handler) : Scheduler {
+
+        @Volatile
+        private var choreographer: Choreographer? = null
+
+        init {
+            // Choreographer instances are bound to the looper of the thread asking for them.
+            if (Looper.myLooper() == handler.looper) {
+                choreographer = Choreographer.getInstance()
+            } else {
+                handler.post { choreographer = Choreographer.getInstance() }
+            }
+        }
+
+        override fun post(task: Runnable) {
+            handler.post(task)
+        }
+
+        override fun postDelayed(task: Runnable, delayMillis: Long) {
+            handler.postDelayed(task, delayMillis)
+        }
+
+        override fun removeCallbacks(task: Runnable) {
+            handler.removeCallbacks(task)
+        }
+
+        override fun postFrameCallback(callback: Choreographer.FrameCallback): Boolean {
+            val choreographer = choreographer ?: return false
+            choreographer.postFrameCallback(callback)
+            return true
+        }
+
+        override fun removeFrameCallback(callback: Choreographer.FrameCallback) {
+            choreographer?.removeFrameCallback(callback)
+        }
+    }
+
+    private companion object {
+        /**
+         * A few frames at 60 Hz, long enough to never preempt a regular frame.
+         */
+        const val FRAME_FALLBACK_MILLIS = 50L
+    }
+}
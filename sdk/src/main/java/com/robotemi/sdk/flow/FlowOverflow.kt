@@ -0,0 +1,34 @@
+package com.robotemi.sdk.flow
+
+/**
+ * What an event flow does when its collector falls behind.
+ *
+ * Events are produced on binder threads, which never wait for a collector, whatever the policy.
+ * None of them suspends the producer: a policy either keeps events or drops them.
+ */
+sealed class FlowOverflow {
+
+    /**
+     * Keep every event. Events the collector has not received yet are queued without a bound.
+     */
+    object Unbounded : FlowOverflow()
+
+    /**
+     * Keep at most [capacity] events, dropping the oldest ones first.
+     */
+    class DropOldest(val capacity: Int = DEFAULT_CAPACITY) : FlowOverflow() {
+
+        init {
+            require(capacity > 0) { "capacity must be positive, was $capacity" }
+        }
+
+        private companion object {
+            const val DEFAULT_CAPACITY = 64
+        }
+    }
+
+    /**
+     * Keep only the latest event.
+     */
+    object Conflate : FlowOverflow()
+}
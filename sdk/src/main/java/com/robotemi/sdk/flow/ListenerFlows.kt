@@ -0,0 +1,52 @@
+package com.robotemi.sdk.flow
+
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
+
+/**
+ * Cold [Flow] of listener events.
+ *
+ * Every collection calls [register] with a sink for its own buffer and calls the returned
+ * function to unregister once the collection ends. The sink never blocks, so it is safe to
+ * call straight from a binder thread.
+ */
+internal fun <E : Any> listenerFlow(
+    overflow: FlowOverflow,
+    register: (sink: (E) -> Unit) -> (() -> Unit)
+): Flow<E> {
+    return flow {
+        val buffer = EventBuffer<E>(overflow)
+        val unregister = register { event -> buffer.offer(event) }
+        try {
+            for (event in buffer.channel) {
+                emit(event)
+            }
+        } finally {
+            unregister()
+        }
+    }
+}
+
+private class EventBuffer<E : Any>(overflow: FlowOverflow) {
+
+    private val dropsOldest = overflow is FlowOverflow.DropOldest
+
+    val channel: Channel<E> = when (overflow) {
+        is FlowOverflow.Unbounded -> Channel(Channel.UNLIMITED)
+        is FlowOverflow.DropOldest -> Channel(overflow.capacity)
+        is FlowOverflow.Conflate -> Channel(Channel.CONFLATED)
+    }
+
+    fun offer(event: E) {
+        if (!dropsOldest) {
+            channel.offer(event)
+            return
+        }
+        synchronized(this) {
+            while (!channel.offer(event)) {
+                channel.poll()
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.robotemi.sdk.ipc
+
+/**
+ * Result of an asynchronous `Robot` call.
+ */
+interface IpcCallback<T> {
+
+    fun onResult(result: T)
+
+    /**
+     * Called instead of [onResult] when the call failed, or with a
+     * [java.util.concurrent.TimeoutException] when the launcher did not answer in time.
+     */
+    fun onError(error: Exception)
+}
@@ -0,0 +1,127 @@
+package com.robotemi.sdk.ipc
+
+import kotlinx.coroutines.suspendCancellableCoroutine
+import kotlinx.coroutines.withTimeout
+import java.util.concurrent.Callable
+import java.util.concurrent.Executor
+import java.util.concurrent.Future
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.ScheduledThreadPoolExecutor
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeoutException
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.coroutines.resume
+import kotlin.coroutines.resumeWithException
+
+/**
+ * Small SDK-owned pool running blocking Binder calls off the caller's thread.
+ *
+ * Results are delivered on the caller's executor or to a suspended coroutine. A call that
+ * does not finish within its timeout is reported as a [TimeoutException] right away, while
+ * the Binder transaction itself finishes in the background.
+ */
+internal class IpcWorker {
+
+    private val threadCount = AtomicInteger()
+
+    private val threadFactory = ThreadFactory { runnable ->
+        Thread(runnable, "temi-sdk-ipc-${threadCount.incrementAndGet()}").apply {
+            isDaemon = true
+        }
+    }
+
+    private val workers = ThreadPoolExecutor(
+        WORKER_COUNT,
+        WORKER_COUNT,
+        KEEP_ALIVE_SECONDS,
+        TimeUnit.SECONDS,
+        LinkedBlockingQueue<Runnable>(),
+        threadFactory
+    ).apply {
+        allowCoreThreadTimeOut(true)
+    }
+
+    private val timeouts = ScheduledThreadPoolExecutor(1, threadFactory).apply {
+        removeOnCancelPolicy = true
+    }
+
+    /**
+     * Run [call] on the pool and hand its outcome to [callback] on [resultExecutor].
+     */
+    fun <T> execute(
+        name: String,
+        timeoutMillis: Long,
+        resultExecutor: Executor,
+        callback: IpcCallback<T>,
+        call: () -> T
+    ) {
+        val isDone = AtomicBoolean()
+        val timeout = timeouts.schedule(Runnable {
+            if (isDone.compareAndSet(false, true)) {
+                resultExecutor.execute { callback.onError(timeoutException(name, timeoutMillis)) }
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS)
+        workers.execute {
+            val delivery = try {
+                val result = call()
+                Runnable { callback.onResult(result) }
+            } catch (e: Exception) {
+                Runnable { callback.onError(e) }
+            }
+            if (isDone.compareAndSet(false, true)) {
+                timeout.cancel(false)
+                resultExecutor.execute(delivery)
+            }
+        }
+    }
+
+    /**
+     * Runs tasks on the pool, for callbacks that go on to make blocking calls themselves.
+     */
+    val executor: Executor = workers
+
+    /**
+     * Run [call] on the pool without a timeout.
+     */
+    fun <T> submit(call: () -> T): Future<T> = workers.submit(Callable { call() })
+
+    /**
+     * Run [task] on the timeout thread after [delayMillis]. It must not block.
+     */
+    fun schedule(delayMillis: Long, task: Runnable): ScheduledFuture<*> {
+        return timeouts.schedule(task, delayMillis, TimeUnit.MILLISECONDS)
+    }
+
+    /**
+     * Run [call] on the pool and suspend until it returns.
+     *
+     * @throws kotlinx.coroutines.TimeoutCancellationException if it takes longer than
+     * [timeoutMillis].
+     */
+    suspend fun <T> await(timeoutMillis: Long, call: () -> T): T {
+        return withTimeout(timeoutMillis) {
+            suspendCancellableCoroutine<T> { continuation ->
+                val future = workers.submit(Runnable {
+                    try {
+                        continuation.resume(call())
+                    } catch (e: Exception) {
+                        continuation.resumeWithException(e)
+                    }
+                })
+                continuation.invokeOnCancellation { future.cancel(false) }
+            }
+        }
+    }
+
+    private fun timeoutException(name: String, timeoutMillis: Long) =
+        TimeoutException("$name did not return within $timeoutMillis ms")
+
+    private companion object {
+        const val WORKER_COUNT = 2
+        const val KEEP_ALIVE_SECONDS = 30L
+    }
+}
@@ -0,0 +1,175 @@
+package com.robotemi.sdk.ipc
+
+import android.os.RemoteException
+import android.util.Log
+import com.robotemi.sdk.ISdkService
+import java.io.Closeable
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.ScheduledThreadPoolExecutor
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+ * Forwards joystick vectors to the robot at a fixed rate from a dedicated sender thread.
+ *
+ * [move] only publishes the latest vector and never blocks, so it can be called from the UI
+ * at any rate. On every tick the sender sends the latest vector if a new one was published
+ * since the previous tick, and vectors superseded in between are dropped. The robot therefore
+ * always receives the current stick position instead of working through a backlog.
+ *
+ * While the stick is held still away from the center, the last vector is sent again on every
+ * tick, since the robot stops when `skidJoy` is not repeated. Repeats end with `move(0, 0)`
+ * or [close], which sends a final stop.
+ *
+ * Vectors are sent as one-way transactions when the launcher supports them, otherwise
+ * through the regular `skidJoy` call.
+ */
+class JoystickChannel internal constructor(
+    periodMillis: Long,
+    private val sdkService: () -> ISdkService?,
+    private val sender: ScheduledExecutorService = newSenderThread()
+) : Closeable {
+
+    private class Vector(val x: Float, val y: Float, val timeNanos: Long)
+
+    private val latest = AtomicReference<Vector?>()
+
+    private val sentCount = AtomicLong()
+
+    private val droppedCount = AtomicLong()
+
+    private val totalLatencyNanos = AtomicLong()
+
+    private val maxLatencyNanos = AtomicLong()
+
+    private val failedCount = AtomicLong()
+
+    /**
+     * Service the one-way support was probed on, only accessed by the sender thread.
+     */
+    private var probedService: ISdkService? = null
+
+    private var isOnewaySupported = false
+
+    /**
+     * Last non-zero vector, repeated on ticks without a new one. Only accessed by the sender
+     * thread.
+     */
+    private var heldVector: Vector? = null
+
+    private val isClosed = AtomicBoolean()
+
+    val stats: JoystickStats
+        get() {
+            val sent = sentCount.get()
+            val averageLatencyNanos = if (sent == 0L) 0L else totalLatencyNanos.get() / sent
+            return JoystickStats(
+                sent,
+                droppedCount.get(),
+                TimeUnit.NANOSECONDS.toMicros(averageLatencyNanos),
+                TimeUnit.NANOSECONDS.toMicros(maxLatencyNanos.get()),
+                failedCount.get()
+            )
+        }
+
+    init {
+        require(periodMillis > 0) { "periodMillis must be positive, was $periodMillis" }
+        sender.scheduleAtFixedRate(
+            Runnable { sendLatest() },
+            periodMillis,
+            periodMillis,
+            TimeUnit.MILLISECONDS
+        )
+    }
+
+    /**
+     * Publish the current stick position.
+     *
+     * @param x Move on the x axis from -1 to 1.
+     * @param y Move on the y axis from -1 to 1.
+     */
+    fun move(x: Float, y: Float) {
+        if (latest.getAndSet(Vector(x, y, System.nanoTime())) != null) {
+            droppedCount.incrementAndGet()
+        }
+    }
+
+    /**
+     * Send a final stop to the robot and stop the sender thread. Vectors not sent yet are
+     * discarded.
+     */
+    override fun close() {
+        if (isClosed.getAndSet(true)) {
+            return
+        }
+        latest.set(null)
+        // Queued behind a tick in progress, and still run after shutdown() unlike the ticks.
+        sender.execute(Runnable {
+            heldVector = null
+            send(0f, 0f)
+        })
+        sender.shutdown()
+    }
+
+    private fun sendLatest() {
+        val vector = latest.getAndSet(null)
+        if (vector == null) {
+            heldVector?.let { send(it.x, it.y) }
+            return
+        }
+        heldVector = if (vector.x == 0f && vector.y == 0f) null else vector
+        val latency = System.nanoTime() - vector.timeNanos
+        if (!send(vector.x, vector.y)) {
+            return
+        }
+        sentCount.incrementAndGet()
+        totalLatencyNanos.addAndGet(latency)
+        if (latency > maxLatencyNanos.get()) {
+            maxLatencyNanos.set(latency)
+        }
+    }
+
+    /**
+     * @return `false` if the vector could not be sent.
+     */
+    private fun send(x: Float, y: Float): Boolean {
+        val service = sdkService() ?: return false
+        try {
+            if (probedService !== service) {
+                probedService = service
+                // Older launchers do not know openJoystickChannel() and answer with false.
+                isOnewaySupported = service.openJoystickChannel()
+            }
+            if (isOnewaySupported) {
+                service.skidJoyOneway(x, y)
+            } else {
+                service.skidJoy(x, y)
+            }
+        } catch (e: RemoteException) {
+            Log.e(TAG, "skidJoy(float, float) (x=$x, y=$y)")
+            failedCount.incrementAndGet()
+            return false
+        } catch (e: RuntimeException) {
+            // Escaping the tick would cancel all the following ones without a trace.
+            Log.e(TAG, "skidJoy(float, float) (x=$x, y=$y)", e)
+            failedCount.incrementAndGet()
+            return false
+        }
+        return true
+    }
+
+    private companion object {
+        const val TAG = "JoystickChannel"
+
+        fun newSenderThread(): ScheduledExecutorService {
+            return ScheduledThreadPoolExecutor(1, ThreadFactory { runnable ->
+                Thread(runnable, "temi-sdk-joystick").apply {
+                    isDaemon = true
+                }
+            })
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.robotemi.sdk.ipc
+
+/**
+ * Counters of a [JoystickChannel].
+ *
+ * @param sent Number of vectors forwarded to the robot, not counting repeats of a held vector.
+ * @param dropped Number of vectors replaced by a newer one before they were sent.
+ * @param averageLatencyMicros Mean time from [JoystickChannel.move] to the vector being sent.
+ * @param maxLatencyMicros Longest time from [JoystickChannel.move] to the vector being sent.
+ * @param failed Number of sends, repeats and stops included, the launcher did not accept.
+ */
+data class JoystickStats(
+    val sent: Long,
+    val dropped: Long,
+    val averageLatencyMicros: Long,
+    val maxLatencyMicros: Long,
+    val failed: Long
+)
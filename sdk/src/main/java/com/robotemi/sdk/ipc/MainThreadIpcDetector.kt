@@ -0,0 +1,80 @@
+package com.robotemi.sdk.ipc
+
+import android.os.Looper
+import android.os.SystemClock
+import android.util.Log
+import com.robotemi.sdk.ISdkService
+import com.robotemi.sdk.listeners.OnMainThreadIpcListener
+import java.lang.reflect.InvocationTargetException
+import java.lang.reflect.Method
+import java.lang.reflect.Proxy
+
+/**
+ * Times the [ISdkService] calls made on the main thread and reports those over [budgetMillis].
+ *
+ * Violations are always logged, then passed to [listener], then thrown when [crash] is set.
+ * A call that fails by itself throws its own exception, with the violation attached as a
+ * suppressed exception.
+ * Calls made on other threads go straight to the service.
+ */
+internal class MainThreadIpcDetector(
+    private val budgetMillis: Long,
+    private val listener: OnMainThreadIpcListener?,
+    private val crash: Boolean,
+    private val isMainThread: () -> Boolean = { Looper.myLooper() === Looper.getMainLooper() },
+    private val uptimeMillis: () -> Long = SystemClock::uptimeMillis
+) {
+
+    fun wrap(service: ISdkService): ISdkService {
+        val proxy = Proxy.newProxyInstance(
+            ISdkService::class.java.classLoader,
+            arrayOf(ISdkService::class.java)
+        ) { _, method, args ->
+            if (!isMainThread()) {
+                return@newProxyInstance invoke(service, method, args)
+            }
+            val start = uptimeMillis()
+            val result = try {
+                invoke(service, method, args)
+            } catch (e: Throwable) {
+                try {
+                    checkBudget(method, start)
+                } catch (violation: MainThreadIpcViolation) {
+                    // The call's own failure is what the caller has to handle.
+                    e.addSuppressed(violation)
+                }
+                throw e
+            }
+            checkBudget(method, start)
+            result
+        }
+        return proxy as ISdkService
+    }
+
+    private fun invoke(service: ISdkService, method: Method, args: Array<Any?>?): Any? {
+        try {
+            return method.invoke(service, *(args ?: emptyArray()))
+        } catch (e: InvocationTargetException) {
+            throw e.targetException
+        }
+    }
+
+    private fun checkBudget(method: Method, start: Long) {
+        val duration = uptimeMillis() - start
+        if (duration > budgetMillis) {
+            report(MainThreadIpcViolation(method.name, duration, budgetMillis))
+        }
+    }
+
+    private fun report(violation: MainThreadIpcViolation) {
+        Log.w(TAG, violation.message, violation)
+        listener?.onMainThreadIpc(violation)
+        if (crash) {
+            throw violation
+        }
+    }
+
+    private companion object {
+        const val TAG = "MainThreadIpcDetector"
+    }
+}
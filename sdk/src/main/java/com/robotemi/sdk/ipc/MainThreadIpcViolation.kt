@@ -0,0 +1,13 @@
+package com.robotemi.sdk.ipc
+
+/**
+ * An IPC call made on the main thread that took longer than the budget given to
+ * `Robot.enableMainThreadIpcDetection`. Its stack trace points at the call site.
+ */
+class MainThreadIpcViolation internal constructor(
+    val methodName: String,
+    val durationMillis: Long,
+    val budgetMillis: Long
+) : RuntimeException(
+    "$methodName() blocked the main thread for $durationMillis ms (budget $budgetMillis ms)"
+)
@@ -0,0 +1,113 @@
+package com.robotemi.sdk.ipc
+
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Future
+
+/**
+ * Iterates over a remote list one page at a time, so no single transaction has to carry
+ * the whole list.
+ *
+ * Pages are read from one snapshot of [source], opened on the first call to [hasNext] and
+ * closed once the last page arrived. Launchers without snapshots send the whole list at once.
+ *
+ * When [prefetch] is given, the next page is requested through it as soon as the current one
+ * arrives. A failed prefetch is retried once on the iterating thread. If a page still cannot
+ * be fetched, iteration throws [PartialTransferException] instead of ending early.
+ */
+internal class PagedIterator<T>(
+    private val pageSize: Int,
+    private val prefetch: ((() -> List<T>) -> Future<List<T>>)?,
+    private val source: PagedSource<T>
+) : Iterator<T> {
+
+    private var snapshotToken: String? = null
+
+    private var isOpened = false
+
+    private var page: List<T> = emptyList()
+
+    private var index = 0
+
+    private var offset = 0
+
+    private var isLastPage = false
+
+    private var nextPage: Future<List<T>>? = null
+
+    init {
+        require(pageSize > 0) { "pageSize must be positive, was $pageSize" }
+    }
+
+    override fun hasNext(): Boolean {
+        while (index >= page.size) {
+            if (isLastPage) {
+                return false
+            }
+            try {
+                loadNextPage()
+            } catch (e: Exception) {
+                nextPage?.cancel(false)
+                nextPage = null
+                closeSnapshot()
+                isLastPage = true
+                page = emptyList()
+                throw PartialTransferException(offset, e)
+            }
+        }
+        return true
+    }
+
+    override fun next(): T {
+        if (!hasNext()) {
+            throw NoSuchElementException()
+        }
+        return page[index++]
+    }
+
+    private fun loadNextPage() {
+        if (!isOpened) {
+            isOpened = true
+            snapshotToken = source.openSnapshot()
+        }
+        val token = snapshotToken
+        if (token == null) {
+            page = source.fetchAll()
+            index = 0
+            offset += page.size
+            isLastPage = true
+            return
+        }
+        val pageOffset = offset
+        page = awaitPrefetchedPage() ?: source.fetchPage(token, pageOffset, pageSize)
+        index = 0
+        offset += page.size
+        isLastPage = page.size < pageSize
+        val prefetch = prefetch
+        if (isLastPage) {
+            closeSnapshot()
+        } else if (prefetch != null) {
+            val nextOffset = offset
+            nextPage = prefetch { source.fetchPage(token, nextOffset, pageSize) }
+        }
+    }
+
+    private fun awaitPrefetchedPage(): List<T>? {
+        val pending = nextPage ?: return null
+        nextPage = null
+        return try {
+            pending.get()
+        } catch (e: ExecutionException) {
+            null
+        }
+    }
+
+    private fun closeSnapshot() {
+        val token = snapshotToken ?: return
+        snapshotToken = null
+        try {
+            source.closeSnapshot(token)
+        } catch (e: Exception) {
+            // The launcher expires snapshots nobody closes.
+        }
+    }
+}
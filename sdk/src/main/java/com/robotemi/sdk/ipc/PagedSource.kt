@@ -0,0 +1,28 @@
+package com.robotemi.sdk.ipc
+
+/**
+ * Remote list read page by page from a snapshot frozen by the launcher, so items added or
+ * removed during the transfer neither shift pages nor get skipped or repeated.
+ *
+ * Every method may throw, typically a `RemoteException`, when the launcher cannot be reached.
+ */
+internal interface PagedSource<T> {
+
+    /**
+     * @return Token of a new snapshot of the list, or `null` if the launcher cannot page it.
+     */
+    fun openSnapshot(): String?
+
+    /**
+     * @return At most [limit] items of the snapshot starting at [offset]. A shorter page is
+     * the last one.
+     */
+    fun fetchPage(snapshotToken: String, offset: Int, limit: Int): List<T>
+
+    /**
+     * The whole list in one transaction, for launchers without snapshots.
+     */
+    fun fetchAll(): List<T>
+
+    fun closeSnapshot(snapshotToken: String)
+}
@@ -0,0 +1,10 @@
+package com.robotemi.sdk.ipc
+
+/**
+ * A paged transfer failed after [transferredCount] items had been received, so the items
+ * seen so far are only the start of the list.
+ */
+class PartialTransferException internal constructor(
+    val transferredCount: Int,
+    cause: Throwable
+) : RuntimeException("Transfer failed after $transferredCount items", cause)
@@ -0,0 +1,89 @@
+package com.robotemi.sdk.ipc
+
+import android.os.SystemClock
+import java.util.ArrayDeque
+
+/**
+ * Bounded queue holding commands issued while the service is not connected, in issue order.
+ *
+ * Each command expires [ttlMillis] after it was queued. When the queue is full, the oldest
+ * command is dropped. Commands queued with the same key replace each other, so only the
+ * latest of a series of toggles is sent.
+ *
+ * While the queue holds commands or is being flushed, new commands are queued behind them
+ * even if the service is connected, so they are never sent ahead of older ones.
+ */
+internal class PendingCommandQueue<C : Any>(
+    private val capacity: Int,
+    private val ttlMillis: Long,
+    private val uptimeMillis: () -> Long = SystemClock::uptimeMillis
+) {
+
+    private class Entry<C>(val command: C, val latestKey: String?, val expiresAt: Long)
+
+    private val entries = ArrayDeque<Entry<C>>(capacity)
+
+    private var isFlushing = false
+
+    init {
+        require(capacity > 0) { "capacity must be positive, was $capacity" }
+        require(ttlMillis > 0) { "ttlMillis must be positive, was $ttlMillis" }
+    }
+
+    /**
+     * @param isConnected Evaluated while holding the queue's lock.
+     * @return `true` if [command] was queued, `false` if it should be sent right away.
+     */
+    @Synchronized
+    fun queueIfPending(latestKey: String?, command: C, isConnected: () -> Boolean): Boolean {
+        if (!isFlushing && entries.isEmpty() && isConnected()) {
+            return false
+        }
+        val now = uptimeMillis()
+        val iterator = entries.iterator()
+        while (iterator.hasNext()) {
+            val entry = iterator.next()
+            if (entry.expiresAt <= now || (latestKey != null && entry.latestKey == latestKey)) {
+                iterator.remove()
+            }
+        }
+        if (entries.size >= capacity) {
+            entries.removeFirst()
+        }
+        entries.addLast(Entry(command, latestKey, now + ttlMillis))
+        return true
+    }
+
+    /**
+     * Take the next command to send after connecting, skipping expired ones. Until this
+     * returns `null`, new commands are queued behind the remaining ones.
+     */
+    @Synchronized
+    fun pollForFlush(): C? {
+        val now = uptimeMillis()
+        while (true) {
+            val entry = entries.pollFirst()
+            if (entry == null) {
+                isFlushing = false
+                return null
+            }
+            if (entry.expiresAt > now) {
+                isFlushing = true
+                return entry.command
+            }
+        }
+    }
+
+    /**
+     * Called once flushing stops, normally or not. If it stopped before [pollForFlush]
+     * returned `null`, the remaining commands are dropped, so new commands are no longer
+     * queued behind a flush that will not resume.
+     */
+    @Synchronized
+    fun endFlush() {
+        if (isFlushing) {
+            isFlushing = false
+            entries.clear()
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.robotemi.sdk.ipc
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Lets concurrent callers of the same read share one transaction.
+ *
+ * The first caller for a key runs the call, callers arriving while it is in flight wait for it
+ * and receive the same result. Results are not kept once the call completes.
+ */
+internal class SingleFlight {
+
+    private class Flight {
+
+        val done = CountDownLatch(1)
+
+        @Volatile
+        var result: Any? = null
+
+        @Volatile
+        var error: Throwable? = null
+    }
+
+    private val flights = HashMap<String, Flight>()
+
+    private val savedCount = AtomicLong()
+
+    /**
+     * Number of calls answered by a transaction started by another caller.
+     */
+    val saved: Long
+        get() = savedCount.get()
+
+    fun <T> run(key: String, call: () -> T): T {
+        var isLeader = false
+        val flight = synchronized(flights) {
+            flights[key] ?: Flight().also {
+                flights[key] = it
+                isLeader = true
+            }
+        }
+        if (!isLeader) {
+            savedCount.incrementAndGet()
+            flight.done.await()
+            flight.error?.let { throw it }
+            @Suppress("UNCHECKED_CAST")
+            return flight.result as T
+        }
+        try {
+            val result = call()
+            flight.result = result
+            return result
+        } catch (e: Throwable) {
+            flight.error = e
+            throw e
+        } finally {
+            synchronized(flights) {
+                flights.remove(key)
+            }
+            flight.done.countDown()
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.robotemi.sdk.listeners
+
+import com.robotemi.sdk.model.LocationsDiff
+
+interface OnLocationsChangedListener {
+
+    /**
+     * Called when saved locations were added, removed or renamed.
+     * The diff is computed once for all listeners, before they are called.
+     */
+    fun onLocationsChanged(diff: LocationsDiff)
+}
@@ -0,0 +1,11 @@
+package com.robotemi.sdk.listeners
+
+import com.robotemi.sdk.ipc.MainThreadIpcViolation
+
+interface OnMainThreadIpcListener {
+
+    /**
+     * Called on the main thread right after a call exceeded the budget.
+     */
+    fun onMainThreadIpc(violation: MainThreadIpcViolation)
+}
@@ -0,0 +1,21 @@
+package com.robotemi.sdk.listeners
+
+interface OnMotionScriptListener {
+
+    /**
+     * Called when a step was issued and its duration has elapsed. This does not wait for the
+     * movement itself, so a turn or tilt with a short duration may still be running. After
+     * the last step, the script has no further steps to issue.
+     *
+     * @param step Index of the step in the script.
+     */
+    fun onStepCompleted(step: Int)
+
+    /**
+     * Called when the script stopped before its end, because it was aborted, replaced by
+     * another script or interrupted by the robot. No further steps run.
+     *
+     * @param step Index of the step that did not complete.
+     */
+    fun onAborted(step: Int, reason: String)
+}
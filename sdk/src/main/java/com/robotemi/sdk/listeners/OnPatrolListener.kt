@@ -0,0 +1,19 @@
+package com.robotemi.sdk.listeners
+
+import com.robotemi.sdk.navigation.PatrolLeg
+import com.robotemi.sdk.navigation.PatrolStats
+
+interface OnPatrolListener {
+
+    /**
+     * Called after every attempt at reaching a location.
+     */
+    fun onLegFinished(leg: PatrolLeg)
+
+    /**
+     * Called once, when the route is done, stopped by its abort policy or cancelled.
+     *
+     * @param isCancelled `true` if the patrol was cancelled.
+     */
+    fun onPatrolFinished(stats: PatrolStats, isCancelled: Boolean)
+}
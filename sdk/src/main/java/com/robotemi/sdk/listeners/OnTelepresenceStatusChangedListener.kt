@@ -2,7 +2,23 @@ package com.robotemi.sdk.listeners
 
 import com.robotemi.sdk.telepresence.CallState
 
-abstract class OnTelepresenceStatusChangedListener(var sessionId: String) {
+abstract class OnTelepresenceStatusChangedListener(sessionId: String) {
+
+    /**
+     * Telepresence session to listen to. Listeners are indexed by it, and assigning a new
+     * value re-indexes a registered listener right away.
+     */
+    var sessionId: String = sessionId
+        set(value) {
+            field = value
+            onKeysChanged?.invoke()
+        }
+
+    /**
+     * Set by `Robot` while the listener is registered.
+     */
+    @Volatile
+    internal var onKeysChanged: (() -> Unit)? = null
 
     /**
      * Called when Telepresence status was changed.
@@ -2,11 +2,28 @@ package com.robotemi.sdk.listeners
 
 import com.robotemi.sdk.UserInfo
 
-abstract class OnUsersUpdatedListener(var userIds: List<String>?) {
+abstract class OnUsersUpdatedListener(userIds: List<String>?) {
+
+    /**
+     * Users to listen to, or `null`/empty for every user. Listeners are indexed by these IDs,
+     * and assigning a new list re-indexes a registered listener right away. Changes made
+     * inside the list after assigning it are not observed.
+     */
+    var userIds: List<String>? = userIds
+        set(value) {
+            field = value
+            onKeysChanged?.invoke()
+        }
+
+    /**
+     * Set by `Robot` while the listener is registered.
+     */
+    @Volatile
+    internal var onKeysChanged: (() -> Unit)? = null
 
     /**
      * Called when users info was changed.
      *
      */
     abstract fun onUserUpdated(user: UserInfo)
-}
\ No newline at end of file
+}
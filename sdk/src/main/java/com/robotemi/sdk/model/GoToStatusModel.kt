@@ -0,0 +1,13 @@
+package com.robotemi.sdk.model
+
+import com.robotemi.sdk.listeners.OnGoToLocationStatusChangedListener
+
+/**
+ * Arguments of [OnGoToLocationStatusChangedListener.onGoToLocationStatusChanged].
+ */
+data class GoToStatusModel(
+    val location: String,
+    @OnGoToLocationStatusChangedListener.GoToLocationStatus val status: String,
+    val descriptionId: Int,
+    val description: String
+)
@@ -0,0 +1,71 @@
+package com.robotemi.sdk.model
+
+/**
+ * Change between two successive lists of saved locations.
+ *
+ * @param locations The complete, read-only list after the change.
+ * @param added Locations that were not saved before, excluding renamed ones.
+ * @param removed Locations that are not saved anymore, excluding renamed ones.
+ * @param renamed Old name to new name of the locations that were renamed in place.
+ */
+data class LocationsDiff(
+    val locations: List<String>,
+    val added: List<String>,
+    val removed: List<String>,
+    val renamed: Map<String, String>
+) {
+
+    val isEmpty: Boolean
+        get() = added.isEmpty() && removed.isEmpty() && renamed.isEmpty()
+
+    internal companion object {
+
+        /**
+         * A location that disappeared from the same place a new one appeared is reported as
+         * renamed, as that is how an edit on the map shows up in the list. The place is the
+         * location kept in both lists right before it, so deletions or insertions elsewhere do
+         * not shift it. When a place lost and gained different numbers of locations, they are
+         * reported as removed and added. A deletion plus an insertion at the very same place
+         * is indistinguishable from a rename and reported as one.
+         */
+        fun compute(oldLocations: List<String>, newLocations: List<String>): LocationsDiff {
+            val oldSet = oldLocations.toHashSet()
+            val newSet = newLocations.toHashSet()
+            val removedByPlace = groupByPlace(oldLocations) { it !in newSet }
+            val addedByPlace = groupByPlace(newLocations) { it !in oldSet }
+            val renamed = LinkedHashMap<String, String>()
+            for ((place, addedAtPlace) in addedByPlace) {
+                val removedAtPlace = removedByPlace[place]
+                if (removedAtPlace != null && removedAtPlace.size == addedAtPlace.size) {
+                    for (i in addedAtPlace.indices) {
+                        renamed[removedAtPlace[i]] = addedAtPlace[i]
+                    }
+                }
+            }
+            val renamedTo = renamed.values.toHashSet()
+            val added = newLocations.filter { it !in oldSet && it !in renamedTo }
+            val removed = oldLocations.filter { it !in newSet && it !in renamed }
+            return LocationsDiff(newLocations, added, removed, renamed)
+        }
+
+        /**
+         * Changed locations keyed by the unchanged location preceding them, `null` for the
+         * ones before the first unchanged location.
+         */
+        private inline fun groupByPlace(
+            locations: List<String>,
+            isChanged: (String) -> Boolean
+        ): Map<String?, List<String>> {
+            val changedByPlace = LinkedHashMap<String?, MutableList<String>>()
+            var place: String? = null
+            for (location in locations) {
+                if (isChanged(location)) {
+                    changedByPlace.getOrPut(place) { ArrayList() }.add(location)
+                } else {
+                    place = location
+                }
+            }
+            return changedByPlace
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.robotemi.sdk.model
+
+import android.os.Parcelable
+import com.robotemi.sdk.BatteryData
+import com.robotemi.sdk.UserInfo
+import kotlinx.android.parcel.Parcelize
+
+/**
+ * Robot information commonly read at startup, fetched in a single transaction.
+ */
+@Parcelize
+data class RobotInfoSnapshot(
+    val serialNumber: String?,
+    val launcherVersion: String,
+    val roboxVersion: String,
+    val wakeupWord: String,
+    val privacyMode: Boolean,
+    val hardButtonsDisabled: Boolean,
+    val batteryData: BatteryData?,
+    val adminInfo: UserInfo?
+) : Parcelable
@@ -0,0 +1,112 @@
+package com.robotemi.sdk.motion
+
+import android.os.RemoteException
+import android.os.SystemClock
+import com.robotemi.sdk.IMotionScriptCallback
+import com.robotemi.sdk.ISdkService
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.TimeUnit
+
+/**
+ * Runs a [MotionScript] from the app, one call per step, for launchers that cannot run
+ * scripts themselves. Starting a script aborts the one still running.
+ */
+internal class LocalMotionScriptRunner(
+    private val sdkService: () -> ISdkService?,
+    private val runner: Executor = newRunnerThread(),
+    private val uptimeMillis: () -> Long = SystemClock::uptimeMillis
+) {
+
+    private class Run {
+
+        /**
+         * Released on abort, which also cuts the current step's wait short.
+         */
+        val aborted = CountDownLatch(1)
+
+        val isAborted: Boolean
+            get() = aborted.count == 0L
+    }
+
+    @Volatile
+    private var current: Run? = null
+
+    fun run(script: MotionScript, callback: IMotionScriptCallback) {
+        val run = Run()
+        current?.aborted?.countDown()
+        current = run
+        runner.execute(Runnable { execute(script, run, callback) })
+    }
+
+    fun abort() {
+        current?.aborted?.countDown()
+    }
+
+    private fun execute(script: MotionScript, run: Run, callback: IMotionScriptCallback) {
+        for (step in 0 until script.stepCount) {
+            if (run.isAborted) {
+                callback.onAborted(step, "Aborted")
+                return
+            }
+            val sdkService = sdkService()
+            if (sdkService == null) {
+                callback.onAborted(step, "Not connected")
+                return
+            }
+            try {
+                perform(sdkService, script, step, run)
+            } catch (e: RemoteException) {
+                callback.onAborted(step, e.toString())
+                return
+            }
+            if (run.isAborted) {
+                callback.onAborted(step, "Aborted")
+                return
+            }
+            callback.onStepCompleted(step)
+        }
+    }
+
+    private fun perform(sdkService: ISdkService, script: MotionScript, step: Int, run: Run) {
+        val arg0 = script.args[step * 2]
+        val arg1 = script.args[step * 2 + 1]
+        val durationMillis = script.durationsMillis[step]
+        when (script.ops[step]) {
+            MotionScript.OP_TURN_BY -> sdkService.turnBy(arg0.toInt(), 1.0f)
+            MotionScript.OP_TILT_ANGLE -> sdkService.tiltAngle(arg0.toInt(), 1.0f)
+            MotionScript.OP_TILT_BY -> sdkService.tiltBy(arg0.toInt(), 1.0f)
+            MotionScript.OP_STOP_MOVEMENT -> sdkService.stopMovement()
+            MotionScript.OP_SKID_JOY -> {
+                // A joystick command only moves the robot briefly, so it is repeated.
+                val end = uptimeMillis() + durationMillis
+                do {
+                    sdkService.skidJoy(arg0, arg1)
+                    val remaining = end - uptimeMillis()
+                } while (remaining > 0 && !run.aborted.await(
+                        minOf(remaining, SKID_JOY_PERIOD_MILLIS),
+                        TimeUnit.MILLISECONDS
+                    )
+                )
+                return
+            }
+        }
+        if (durationMillis > 0) {
+            run.aborted.await(durationMillis, TimeUnit.MILLISECONDS)
+        }
+    }
+
+    private companion object {
+        const val SKID_JOY_PERIOD_MILLIS = 100L
+
+        fun newRunnerThread(): Executor {
+            return Executors.newSingleThreadExecutor(ThreadFactory { runnable ->
+                Thread(runnable, "temi-sdk-motion").apply {
+                    isDaemon = true
+                }
+            })
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.robotemi.sdk.motion
+
+import android.os.Parcel
+import android.os.Parcelable
+
+/**
+ * Sequence of movements executed by the robot in one go, without the app timing each step.
+ *
+ * Each step starts its movement and lasts for its duration before the next step starts.
+ * A step does not wait for its movement to finish, so give a turn or tilt a duration long
+ * enough for it when the next step depends on it.
+ *
+ * Build one with [Builder].
+ *
+ * Wire format, read by launchers running scripts: steps are stored column-wise in primitive
+ * arrays, so a script stays compact on the wire. The parcel holds, in this order:
+ *
+ * 1. [FORMAT_VERSION], written with `writeInt`.
+ * 2. [ops], written with `writeIntArray`.
+ * 3. [args], written with `writeFloatArray`, twice as long as [ops].
+ * 4. [durationsMillis], written with `writeLongArray`, as long as [ops].
+ *
+ * The format never changes for a given [FORMAT_VERSION]. The arrays are exposed for launchers
+ * and must not be modified.
+ */
+class MotionScript internal constructor(
+    /**
+     * One `OP_*` constant per step.
+     */
+    val ops: IntArray,
+    /**
+     * Two arguments per step, step `i` using indices `2 * i` and `2 * i + 1`. Unused
+     * arguments are 0.
+     */
+    val args: FloatArray,
+    /**
+     * Duration of each step in milliseconds, counted from the start of its movement.
+     */
+    val durationsMillis: LongArray
+) : Parcelable {
+
+    val stepCount: Int
+        get() = ops.size
+
+    /**
+     * The [Parcel] calls making up the wire format, so it can be checked without a device.
+     */
+    internal interface Writer {
+
+        fun writeInt(value: Int)
+
+        fun writeIntArray(value: IntArray)
+
+        fun writeFloatArray(value: FloatArray)
+
+        fun writeLongArray(value: LongArray)
+    }
+
+    /**
+     * Counterpart of [Writer].
+     */
+    internal interface Reader {
+
+        fun readInt(): Int
+
+        fun createIntArray(): IntArray?
+
+        fun createFloatArray(): FloatArray?
+
+        fun createLongArray(): LongArray?
+    }
+
+    override fun describeContents() = 0
+
+    override fun writeToParcel(dest: Parcel, flags: Int) {
+        writeTo(object : Writer {
+            override fun writeInt(value: Int) = dest.writeInt(value)
+
+            override fun writeIntArray(value: IntArray) = dest.writeIntArray(value)
+
+            override fun writeFloatArray(value: FloatArray) = dest.writeFloatArray(value)
+
+            override fun writeLongArray(value: LongArray) = dest.writeLongArray(value)
+        })
+    }
+
+    internal fun writeTo(dest: Writer) {
+        dest.writeInt(FORMAT_VERSION)
+        dest.writeIntArray(ops)
+        dest.writeFloatArray(args)
+        dest.writeLongArray(durationsMillis)
+    }
+
+    class Builder {
+
+        private val ops = ArrayList<Int>()
+
+        private val args = ArrayList<Float>()
+
+        private val durationsMillis = ArrayList<Long>()
+
+        /**
+         * Turn by [degrees], then wait [durationMillis].
+         */
+        @JvmOverloads
+        fun turnBy(degrees: Int, durationMillis: Long = 0): Builder {
+            return add(OP_TURN_BY, degrees.toFloat(), 0f, durationMillis)
+        }
+
+        /**
+         * Tilt the head to [degrees], between 55 and -25, then wait [durationMillis].
+         */
+        @JvmOverloads
+        fun tiltAngle(degrees: Int, durationMillis: Long = 0): Builder {
+            return add(OP_TILT_ANGLE, degrees.toFloat(), 0f, durationMillis)
+        }
+
+        /**
+         * Tilt the head by [degrees], then wait [durationMillis].
+         */
+        @JvmOverloads
+        fun tiltBy(degrees: Int, durationMillis: Long = 0): Builder {
+            return add(OP_TILT_BY, degrees.toFloat(), 0f, durationMillis)
+        }
+
+        /**
+         * Drive with joystick values [x] and [y], from -1 to 1, for [durationMillis].
+         */
+        fun skidJoy(x: Float, y: Float, durationMillis: Long): Builder {
+            return add(OP_SKID_JOY, x, y, durationMillis)
+        }
+
+        fun stopMovement(): Builder {
+            return add(OP_STOP_MOVEMENT, 0f, 0f, 0)
+        }
+
+        /**
+         * Do nothing for [durationMillis].
+         */
+        fun pause(durationMillis: Long): Builder {
+            return add(OP_PAUSE, 0f, 0f, durationMillis)
+        }
+
+        fun build(): MotionScript {
+            return MotionScript(
+                ops.toIntArray(),
+                args.toFloatArray(),
+                durationsMillis.toLongArray()
+            )
+        }
+
+        private fun add(op: Int, arg0: Float, arg1: Float, durationMillis: Long): Builder {
+            require(durationMillis >= 0) {
+                "durationMillis must not be negative, was $durationMillis"
+            }
+            ops.add(op)
+            args.add(arg0)
+            args.add(arg1)
+            durationsMillis.add(durationMillis)
+            return this
+        }
+    }
+
+    companion object {
+
+        /**
+         * Version of the wire format written by this SDK. Readers must reject other versions,
+         * as a later one may lay out the steps differently.
+         */
+        const val FORMAT_VERSION = 1
+
+        @JvmField
+        val CREATOR = object : Parcelable.Creator<MotionScript> {
+            override fun createFromParcel(source: Parcel): MotionScript {
+                return readFrom(object : Reader {
+                    override fun readInt() = source.readInt()
+
+                    override fun createIntArray() = source.createIntArray()
+
+                    override fun createFloatArray() = source.createFloatArray()
+
+                    override fun createLongArray() = source.createLongArray()
+                })
+            }
+
+            override fun newArray(size: Int): Array<MotionScript?> = arrayOfNulls(size)
+        }
+
+        internal fun readFrom(source: Reader): MotionScript {
+            val version = source.readInt()
+            require(version == FORMAT_VERSION) { "Unsupported MotionScript format $version" }
+            val ops = requireNotNull(source.createIntArray()) { "Missing ops" }
+            val args = requireNotNull(source.createFloatArray()) { "Missing args" }
+            val durationsMillis = requireNotNull(source.createLongArray()) {
+                "Missing durationsMillis"
+            }
+            require(args.size == ops.size * 2 && durationsMillis.size == ops.size) {
+                "Inconsistent step count: ${ops.size} ops, ${args.size} args and " +
+                        "${durationsMillis.size} durations"
+            }
+            return MotionScript(ops, args, durationsMillis)
+        }
+
+        /**
+         * `turnBy(args[0])` at full speed.
+         */
+        const val OP_TURN_BY = 0
+
+        /**
+         * `tiltAngle(args[0])` at full speed.
+         */
+        const val OP_TILT_ANGLE = 1
+
+        /**
+         * `tiltBy(args[0])` at full speed.
+         */
+        const val OP_TILT_BY = 2
+
+        /**
+         * `skidJoy(args[0], args[1])`, repeated for the whole duration of the step.
+         */
+        const val OP_SKID_JOY = 3
+
+        /**
+         * `stopMovement()`, the duration is always 0.
+         */
+        const val OP_STOP_MOVEMENT = 4
+
+        /**
+         * No movement, only the duration.
+         */
+        const val OP_PAUSE = 5
+    }
+}
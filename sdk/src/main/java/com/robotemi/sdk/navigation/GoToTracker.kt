@@ -0,0 +1,148 @@
+package com.robotemi.sdk.navigation
+
+import com.robotemi.sdk.listeners.OnGoToLocationStatusChangedListener
+import com.robotemi.sdk.model.GoToStatusModel
+import java.util.Locale
+import java.util.concurrent.Future
+
+/**
+ * Table of `goTo` requests waiting for their outcome, keyed by location, so each status event
+ * is matched to its requests in O(1) however many are in flight.
+ *
+ * A request leaves the table exactly once, either through a final status or through
+ * [remove], and only the caller that takes it out completes it.
+ *
+ * Status events carry nothing but the location, so a final status may also belong to an
+ * earlier goto to the same location, one that was superseded or that its request stopped
+ * waiting for. A final status therefore only completes the requests the robot reported
+ * [OnGoToLocationStatusChangedListener.START] for since they were tracked. Requests without
+ * one only take a final status when no earlier goto to the location may still report, so a
+ * goto aborted before it even started still completes.
+ */
+internal class GoToTracker {
+
+    class Pending internal constructor(
+        internal val key: String,
+        internal val onDone: (GoToStatusModel) -> Unit
+    ) {
+
+        /**
+         * Whether the robot started going to the location since the request was tracked.
+         * Guarded by the tracker.
+         */
+        internal var isStarted = false
+
+        private var timeout: Future<*>? = null
+
+        private var isDone = false
+
+        /**
+         * Cancel [timeout] once the request leaves the table, or right away if it already did.
+         */
+        internal fun cancelOnDone(timeout: Future<*>) {
+            val isDone = synchronized(this) {
+                this.timeout = timeout
+                isDone
+            }
+            if (isDone) {
+                timeout.cancel(false)
+            }
+        }
+
+        internal fun done() {
+            synchronized(this) {
+                isDone = true
+                timeout
+            }?.cancel(false)
+        }
+    }
+
+    private val inFlight = HashMap<String, MutableList<Pending>>()
+
+    /**
+     * Locations of started requests that stopped waiting before a final status, which may
+     * still arrive.
+     */
+    private val mayReportLate = HashSet<String>()
+
+    /**
+     * Start waiting for the outcome of going to [location]. [onDone] is invoked on the
+     * thread reporting the final status.
+     */
+    fun track(location: String, onDone: (GoToStatusModel) -> Unit): Pending {
+        val pending = Pending(key(location), onDone)
+        synchronized(inFlight) {
+            inFlight.getOrPut(pending.key) { ArrayList(1) }.add(pending)
+        }
+        return pending
+    }
+
+    /**
+     * @return `false` if [pending] already completed.
+     */
+    fun remove(pending: Pending): Boolean {
+        synchronized(inFlight) {
+            val requests = inFlight[pending.key] ?: return false
+            if (!requests.remove(pending)) {
+                return false
+            }
+            if (requests.isEmpty()) {
+                inFlight.remove(pending.key)
+            }
+            if (pending.isStarted) {
+                mayReportLate.add(pending.key)
+            }
+        }
+        pending.done()
+        return true
+    }
+
+    /**
+     * Complete the requests for the event's location when its status is final.
+     *
+     * @return `true` if requests were waiting for this location.
+     */
+    fun onStatusChanged(status: GoToStatusModel): Boolean {
+        val key = key(status.location)
+        val completed = synchronized(inFlight) {
+            val requests = inFlight[key]
+            when (status.status) {
+                OnGoToLocationStatusChangedListener.START -> {
+                    mayReportLate.remove(key)
+                    requests?.forEach { it.isStarted = true }
+                    return requests != null
+                }
+                OnGoToLocationStatusChangedListener.COMPLETE,
+                OnGoToLocationStatusChangedListener.ABORT -> {
+                    val isLate = mayReportLate.remove(key)
+                    if (requests == null) {
+                        return false
+                    }
+                    var completed: List<Pending> = requests.filter { it.isStarted }
+                    if (completed.isEmpty()) {
+                        if (isLate) {
+                            return true
+                        }
+                        completed = ArrayList(requests)
+                    }
+                    requests.removeAll(completed)
+                    if (requests.isEmpty()) {
+                        inFlight.remove(key)
+                    }
+                    completed
+                }
+                else -> return requests != null
+            }
+        }
+        for (pending in completed) {
+            pending.done()
+            pending.onDone(status)
+        }
+        return true
+    }
+
+    /**
+     * Locations are saved in lower case, so match them regardless of case.
+     */
+    private fun key(location: String) = location.trim().toLowerCase(Locale.ROOT)
+}
@@ -0,0 +1,22 @@
+package com.robotemi.sdk.navigation
+
+/**
+ * What a [PatrolRun] does when a leg is aborted or times out.
+ */
+enum class PatrolAbortPolicy {
+
+    /**
+     * Go to the same location again, up to the run's retry limit, then skip it.
+     */
+    RETRY,
+
+    /**
+     * Continue with the next location.
+     */
+    SKIP,
+
+    /**
+     * End the patrol.
+     */
+    STOP
+}
@@ -0,0 +1,38 @@
+package com.robotemi.sdk.navigation
+
+/**
+ * One attempt at reaching a location of a patrol.
+ *
+ * @param index Position of [location] in the route.
+ * @param attempt 0 for the first attempt, then 1 for the first retry and so on.
+ * @param durationMillis Time from sending `goTo` to the outcome.
+ * @param reason Why the leg did not complete, `null` when it did.
+ */
+data class PatrolLeg(
+    val index: Int,
+    val location: String,
+    val outcome: Outcome,
+    val attempt: Int,
+    val durationMillis: Long,
+    val reason: String?
+) {
+
+    enum class Outcome {
+        COMPLETED,
+
+        /**
+         * The leg failed and the same location is attempted again.
+         */
+        RETRIED,
+
+        /**
+         * The leg failed and the patrol continues with the next location.
+         */
+        SKIPPED,
+
+        /**
+         * The leg failed and the patrol ends.
+         */
+        FAILED
+    }
+}
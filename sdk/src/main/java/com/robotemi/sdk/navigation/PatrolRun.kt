@@ -0,0 +1,192 @@
+package com.robotemi.sdk.navigation
+
+import android.os.SystemClock
+import com.robotemi.sdk.ipc.IpcCallback
+import com.robotemi.sdk.listeners.OnGoToLocationStatusChangedListener
+import com.robotemi.sdk.listeners.OnPatrolListener
+import com.robotemi.sdk.model.GoToStatusModel
+import java.util.concurrent.Executor
+
+/**
+ * Drives the robot through an ordered list of locations.
+ *
+ * The next `goTo` is sent as soon as the previous leg's outcome arrives, so no time is lost
+ * between legs. [goTo] reports outcomes on an SDK worker thread rather than on the binder
+ * thread delivering the status, which stays free while the next `goTo` is sent. A leg that
+ * is aborted or exceeds its timeout is handled according to the [PatrolAbortPolicy].
+ */
+class PatrolRun internal constructor(
+    private val locations: List<String>,
+    private val legTimeoutMillis: Long,
+    private val abortPolicy: PatrolAbortPolicy,
+    private val maxRetries: Int,
+    private val listener: OnPatrolListener?,
+    private val executor: Executor,
+    private val goTo: (String, Long, IpcCallback<GoToStatusModel>) -> Unit,
+    private val stopMovement: () -> Unit,
+    private val elapsedRealtime: () -> Long = SystemClock::elapsedRealtime
+) {
+
+    private val lock = Any()
+
+    private var legIndex = 0
+
+    private var attempt = 0
+
+    /**
+     * Identifies the leg in progress, so a late outcome of an earlier one is ignored.
+     */
+    private var legToken = 0
+
+    private var legStartMillis = 0L
+
+    private var startMillis = 0L
+
+    private var endMillis = 0L
+
+    private var legsCompleted = 0
+
+    private var legsSkipped = 0
+
+    private var retries = 0
+
+    private var isFinished = false
+
+    val stats: PatrolStats
+        get() = synchronized(lock) { buildStats() }
+
+    val isRunning: Boolean
+        get() = synchronized(lock) { !isFinished }
+
+    init {
+        require(legTimeoutMillis > 0) {
+            "legTimeoutMillis must be positive, was $legTimeoutMillis"
+        }
+        require(maxRetries >= 0) { "maxRetries must not be negative, was $maxRetries" }
+    }
+
+    /**
+     * Stop the robot and end the patrol without further legs.
+     */
+    fun cancel() {
+        val stats = synchronized(lock) {
+            if (isFinished) {
+                return
+            }
+            finish()
+        }
+        stopMovement()
+        notifyFinished(stats, true)
+    }
+
+    internal fun start() {
+        synchronized(lock) {
+            startMillis = elapsedRealtime()
+        }
+        startLeg()
+    }
+
+    private fun startLeg() {
+        var finishedStats: PatrolStats? = null
+        var token = 0
+        val location = synchronized(lock) {
+            if (isFinished) {
+                return
+            }
+            if (legIndex >= locations.size) {
+                finishedStats = finish()
+                null
+            } else {
+                token = ++legToken
+                legStartMillis = elapsedRealtime()
+                locations[legIndex]
+            }
+        }
+        if (location == null) {
+            notifyFinished(finishedStats ?: return, false)
+            return
+        }
+        goTo(location, legTimeoutMillis, object : IpcCallback<GoToStatusModel> {
+            override fun onResult(result: GoToStatusModel) {
+                if (result.status == OnGoToLocationStatusChangedListener.COMPLETE) {
+                    onLegFinished(token, null)
+                } else {
+                    onLegFinished(token, result.description.ifEmpty { result.status })
+                }
+            }
+
+            override fun onError(error: Exception) {
+                onLegFinished(token, error.toString())
+            }
+        })
+    }
+
+    /**
+     * @param reason `null` if the leg completed.
+     */
+    private fun onLegFinished(token: Int, reason: String?) {
+        var finishedStats: PatrolStats? = null
+        val leg = synchronized(lock) {
+            if (token != legToken || isFinished) {
+                return
+            }
+            val duration = elapsedRealtime() - legStartMillis
+            val outcome = when {
+                reason == null -> PatrolLeg.Outcome.COMPLETED
+                abortPolicy == PatrolAbortPolicy.STOP -> PatrolLeg.Outcome.FAILED
+                abortPolicy == PatrolAbortPolicy.RETRY && attempt < maxRetries ->
+                    PatrolLeg.Outcome.RETRIED
+                else -> PatrolLeg.Outcome.SKIPPED
+            }
+            val leg = PatrolLeg(legIndex, locations[legIndex], outcome, attempt, duration, reason)
+            when (outcome) {
+                PatrolLeg.Outcome.COMPLETED -> {
+                    legsCompleted++
+                    nextLeg()
+                }
+                PatrolLeg.Outcome.RETRIED -> {
+                    retries++
+                    attempt++
+                }
+                PatrolLeg.Outcome.SKIPPED -> {
+                    legsSkipped++
+                    nextLeg()
+                }
+                PatrolLeg.Outcome.FAILED -> finishedStats = finish()
+            }
+            leg
+        }
+        listener?.let { executor.execute(Runnable { it.onLegFinished(leg) }) }
+        val stats = finishedStats
+        if (stats != null) {
+            notifyFinished(stats, false)
+        } else {
+            startLeg()
+        }
+    }
+
+    private fun nextLeg() {
+        legIndex++
+        attempt = 0
+    }
+
+    private fun finish(): PatrolStats {
+        isFinished = true
+        endMillis = elapsedRealtime()
+        return buildStats()
+    }
+
+    private fun buildStats(): PatrolStats {
+        val elapsed = (if (isFinished) endMillis else elapsedRealtime()) - startMillis
+        val legsPerHour = if (elapsed > 0) legsCompleted * MILLIS_PER_HOUR / elapsed else 0.0
+        return PatrolStats(legsCompleted, legsSkipped, retries, elapsed, legsPerHour)
+    }
+
+    private fun notifyFinished(stats: PatrolStats, isCancelled: Boolean) {
+        listener?.let { executor.execute(Runnable { it.onPatrolFinished(stats, isCancelled) }) }
+    }
+
+    private companion object {
+        const val MILLIS_PER_HOUR = 3_600_000.0
+    }
+}
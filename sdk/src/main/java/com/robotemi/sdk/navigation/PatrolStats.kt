@@ -0,0 +1,14 @@
+package com.robotemi.sdk.navigation
+
+/**
+ * Aggregated counters of a [PatrolRun].
+ *
+ * @param legsPerHour Completed legs per hour of [elapsedMillis].
+ */
+data class PatrolStats(
+    val legsCompleted: Int,
+    val legsSkipped: Int,
+    val retries: Int,
+    val elapsedMillis: Long,
+    val legsPerHour: Double
+)
@@ -0,0 +1,191 @@
+package com.robotemi.sdk.state
+
+import com.robotemi.sdk.UserInfo
+import java.util.Locale
+import java.util.TreeMap
+import java.util.concurrent.CountDownLatch
+
+/**
+ * Local copy of the temi contacts, indexed by user ID, by role and by name prefix.
+ *
+ * The contacts are downloaded on first use and after every reconnect. In between, the copy is
+ * kept current by `onUserUpdated` without downloading again. Updates arriving while the
+ * contacts are being downloaded are applied again on top of the download, so they are not
+ * lost to a list fetched before them.
+ *
+ * Name lookups are case-insensitive and match the start of any word of the name. They cost
+ * O(log n) plus the number of matches.
+ *
+ * Lookups block on IPC while the copy is being downloaded, also when another thread started
+ * the download, so do not run the first lookup after connecting on the main thread.
+ */
+class ContactDirectory internal constructor(
+    /**
+     * All the contacts, or `null` if the launcher could not be reached.
+     */
+    private val fetch: () -> List<UserInfo>?
+) {
+
+    private val byId = HashMap<String, UserInfo>()
+
+    private val idsByRole = HashMap<Int, MutableSet<String>>()
+
+    /**
+     * Keyed by the lowercase name from the start of each word, followed by
+     * [KEY_SEPARATOR] and the user ID, so equal names keep one entry per user.
+     */
+    private val byName = TreeMap<String, UserInfo>()
+
+    private var isStale = true
+
+    /**
+     * Released when the download in progress completes, `null` while none is.
+     */
+    private var syncDone: CountDownLatch? = null
+
+    /**
+     * Updates received while downloading, applied on top of the download. Dropped if it fails,
+     * as the next download includes them.
+     */
+    private val updatesDuringFetch = ArrayList<UserInfo>()
+
+    val size: Int
+        get() {
+            sync()
+            return synchronized(this) { byId.size }
+        }
+
+    fun get(userId: String): UserInfo? {
+        sync()
+        synchronized(this) {
+            return byId[userId]
+        }
+    }
+
+    fun withRole(role: Int): List<UserInfo> {
+        sync()
+        synchronized(this) {
+            return idsByRole[role]?.mapNotNull { byId[it] }.orEmpty()
+        }
+    }
+
+    /**
+     * @return Up to [limit] contacts having a word of their name start with [prefix],
+     * sorted by the matched part of the name.
+     */
+    @JvmOverloads
+    fun findByNamePrefix(prefix: String, limit: Int = Int.MAX_VALUE): List<UserInfo> {
+        require(limit >= 0) { "limit must not be negative, was $limit" }
+        sync()
+        val from = normalize(prefix)
+        synchronized(this) {
+            val matches = LinkedHashMap<String, UserInfo>()
+            val candidates = byName.subMap(from, true, from + Char.MAX_VALUE, false).values
+            for (user in candidates) {
+                if (matches.size >= limit) {
+                    break
+                }
+                matches[user.userId] = user
+            }
+            return ArrayList(matches.values)
+        }
+    }
+
+    /**
+     * Download the contacts again on the next lookup.
+     */
+    fun refresh() {
+        synchronized(this) {
+            isStale = true
+        }
+    }
+
+    /**
+     * Download the contacts if stale. Callers arriving while another one is downloading wait
+     * for it instead of reading a copy that is still empty or out of date.
+     */
+    internal fun sync() {
+        val done = CountDownLatch(1)
+        while (true) {
+            val running = synchronized(this) {
+                val running = syncDone
+                if (running == null) {
+                    if (!isStale) {
+                        return
+                    }
+                    isStale = false
+                    syncDone = done
+                }
+                running
+            } ?: break
+            running.await()
+        }
+        try {
+            download()
+        } finally {
+            synchronized(this) {
+                syncDone = null
+                updatesDuringFetch.clear()
+            }
+            done.countDown()
+        }
+    }
+
+    private fun download() {
+        val contacts = fetch()
+        synchronized(this) {
+            if (contacts == null) {
+                isStale = true
+                return
+            }
+            byId.clear()
+            idsByRole.clear()
+            byName.clear()
+            for (contact in contacts) {
+                put(contact)
+            }
+            for (user in updatesDuringFetch) {
+                put(user)
+            }
+        }
+    }
+
+    internal fun update(user: UserInfo) {
+        synchronized(this) {
+            if (syncDone != null) {
+                updatesDuringFetch.add(user)
+            } else if (!isStale) {
+                put(user)
+            }
+        }
+    }
+
+    private fun put(user: UserInfo) {
+        byId.put(user.userId, user)?.let { remove(it) }
+        idsByRole.getOrPut(user.role) { LinkedHashSet() }.add(user.userId)
+        forEachNameKey(user) { byName[it] = user }
+    }
+
+    private fun remove(user: UserInfo) {
+        idsByRole[user.role]?.remove(user.userId)
+        forEachNameKey(user) { byName.remove(it) }
+    }
+
+    private inline fun forEachNameKey(user: UserInfo, action: (String) -> Unit) {
+        val name = normalize(user.name)
+        var isWordStart = true
+        for (i in name.indices) {
+            val isLetterOrDigit = name[i].isLetterOrDigit()
+            if (isWordStart && isLetterOrDigit) {
+                action(name.substring(i) + KEY_SEPARATOR + user.userId)
+            }
+            isWordStart = !isLetterOrDigit
+        }
+    }
+
+    private fun normalize(name: String) = name.trim().toLowerCase(Locale.ROOT)
+
+    private companion object {
+        const val KEY_SEPARATOR = '\u0000'
+    }
+}
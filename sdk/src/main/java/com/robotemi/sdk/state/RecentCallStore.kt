@@ -0,0 +1,163 @@
+package com.robotemi.sdk.state
+
+import com.robotemi.sdk.model.RecentCallModel
+import java.util.TreeMap
+import java.util.concurrent.CountDownLatch
+
+/**
+ * Local copy of the call history, kept in sync with the launcher incrementally.
+ *
+ * Calls are indexed by session ID and ordered by timestamp, so range and "last N" queries are
+ * answered from memory. The copy is brought up to date before a query whenever a call ended
+ * or the service reconnected since the last sync. Only calls newer than the latest known one
+ * are then transferred.
+ *
+ * Queries may block on IPC while the copy is out of date, or wait for another thread doing so,
+ * so do not query on the main thread.
+ */
+class RecentCallStore internal constructor(
+    /**
+     * Calls with a timestamp at or after the argument, or the whole history for `null`.
+     * Returns `null` if the launcher could not be reached.
+     */
+    private val fetch: (sinceMillis: Long?) -> List<RecentCallModel>?
+) {
+
+    private class CallKey(val timestamp: Long, val sessionId: String) : Comparable<CallKey> {
+
+        override fun compareTo(other: CallKey): Int {
+            val byTime = timestamp.compareTo(other.timestamp)
+            return if (byTime != 0) byTime else sessionId.compareTo(other.sessionId)
+        }
+    }
+
+    private val byTime = TreeMap<CallKey, RecentCallModel>()
+
+    private val keysBySession = HashMap<String, CallKey>()
+
+    private var isStale = true
+
+    private var isLoaded = false
+
+    /**
+     * Released when the sync in progress completes, `null` while none is.
+     */
+    private var syncDone: CountDownLatch? = null
+
+    val size: Int
+        get() {
+            sync()
+            return synchronized(this) { byTime.size }
+        }
+
+    fun get(sessionId: String): RecentCallModel? {
+        sync()
+        synchronized(this) {
+            return keysBySession[sessionId]?.let { byTime[it] }
+        }
+    }
+
+    /**
+     * @return Calls with [fromMillis] <= timestamp < [toMillis], oldest first.
+     */
+    fun between(fromMillis: Long, toMillis: Long): List<RecentCallModel> {
+        if (fromMillis >= toMillis) {
+            return emptyList()
+        }
+        sync()
+        synchronized(this) {
+            return ArrayList(byTime.subMap(CallKey(fromMillis, ""), CallKey(toMillis, "")).values)
+        }
+    }
+
+    /**
+     * @return The [count] most recent calls, newest first.
+     */
+    fun last(count: Int): List<RecentCallModel> {
+        require(count >= 0) { "count must not be negative, was $count" }
+        sync()
+        synchronized(this) {
+            val calls = ArrayList<RecentCallModel>(minOf(count, byTime.size))
+            val iterator = byTime.descendingMap().values.iterator()
+            while (calls.size < count && iterator.hasNext()) {
+                calls.add(iterator.next())
+            }
+            return calls
+        }
+    }
+
+    /**
+     * Bring the local copy up to date if it may be behind the launcher. Callers arriving while
+     * another one is fetching wait for it instead of reading a copy that is still behind.
+     */
+    fun sync() {
+        val done = CountDownLatch(1)
+        var sinceMillis: Long? = null
+        while (true) {
+            val running = synchronized(this) {
+                val running = syncDone
+                if (running == null) {
+                    if (!isStale) {
+                        return
+                    }
+                    // Cleared first, so a call ending while fetching triggers another sync.
+                    isStale = false
+                    syncDone = done
+                    sinceMillis = if (isLoaded && byTime.isNotEmpty()) {
+                        byTime.lastKey().timestamp
+                    } else {
+                        null
+                    }
+                }
+                running
+            } ?: break
+            running.await()
+        }
+        try {
+            fetchAndApply(sinceMillis)
+        } finally {
+            synchronized(this) {
+                syncDone = null
+            }
+            done.countDown()
+        }
+    }
+
+    private fun fetchAndApply(sinceMillis: Long?) {
+        var calls = fetch(sinceMillis)
+        var isFullHistory = sinceMillis == null
+        if (calls != null && calls.isEmpty() && sinceMillis != null) {
+            // The latest known call is always part of a supported incremental reply, so an
+            // empty one comes from a launcher without it or from a cleared history.
+            calls = fetch(null)
+            isFullHistory = true
+        }
+        synchronized(this) {
+            if (calls == null) {
+                isStale = true
+                return
+            }
+            if (isFullHistory) {
+                byTime.clear()
+                keysBySession.clear()
+                isLoaded = true
+            }
+            for (call in calls) {
+                put(call)
+            }
+        }
+    }
+
+    internal fun markStale() {
+        synchronized(this) {
+            isStale = true
+        }
+    }
+
+    private fun put(call: RecentCallModel) {
+        keysBySession.remove(call.sessionId)?.let { byTime.remove(it) }
+        val key = CallKey(call.timestamp ?: 0L, call.sessionId)
+        byTime[key] = call
+        keysBySession[call.sessionId] = key
+    }
+}
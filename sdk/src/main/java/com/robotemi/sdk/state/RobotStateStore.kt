@@ -0,0 +1,84 @@
+package com.robotemi.sdk.state
+
+import com.robotemi.sdk.BatteryData
+import com.robotemi.sdk.UserInfo
+import com.robotemi.sdk.permission.Permission
+
+/**
+ * Mirror of robot state kept current by the launcher's callbacks, so the matching `Robot`
+ * getters are served from memory and only go over IPC while an entry is cold.
+ *
+ * Every entry is cleared when the service connection is replaced.
+ */
+class RobotStateStore internal constructor() {
+
+    /**
+     * Fed by `onBatteryStatusChanged`.
+     */
+    val battery = StateEntry<BatteryData>()
+
+    /**
+     * Fed by `onPrivacyModeStateChanged`.
+     */
+    val privacyMode = StateEntry<Boolean>()
+
+    /**
+     * Fed by `onLocationsUpdated`.
+     */
+    val locations = StateEntry<List<String>>()
+
+    /**
+     * Constant while bound to the same service, loaded on first read or by the prefetch that
+     * follows every connection.
+     */
+    val serialNumber = StateEntry<String>()
+
+    /**
+     * Constant while bound to the same service, see [serialNumber].
+     */
+    val launcherVersion = StateEntry<String>()
+
+    /**
+     * Constant while bound to the same service, see [serialNumber].
+     */
+    val roboxVersion = StateEntry<String>()
+
+    /**
+     * Constant while bound to the same service, see [serialNumber].
+     */
+    val wakeupWord = StateEntry<String>()
+
+    /**
+     * Loaded on first read or by the prefetch that follows every connection, and updated by
+     * the app's own `Robot.isHardButtonsDisabled` writes. The launcher does not report changes
+     * made by other apps, so it can be stale until the next connection.
+     */
+    val hardButtonsDisabled = StateEntry<Boolean>()
+
+    /**
+     * Loaded on first read or by the prefetch that follows every connection. The launcher does
+     * not report a change of admin, which only happens when the robot is registered again.
+     */
+    val adminInfo = StateEntry<UserInfo>()
+
+    /**
+     * Decisions of `Robot.checkSelfPermission`, updated by `onRequestPermissionResult`.
+     */
+    val permissions: Map<Permission, StateEntry<Int>> =
+        Permission.values().associateWith { StateEntry<Int>() }
+
+    internal fun invalidate() {
+        for (entry in permissions.values) {
+            entry.invalidate()
+        }
+        serialNumber.invalidate()
+        launcherVersion.invalidate()
+        roboxVersion.invalidate()
+        wakeupWord.invalidate()
+        hardButtonsDisabled.invalidate()
+        adminInfo.invalidate()
+        battery.invalidate()
+        privacyMode.invalidate()
+        locations.invalidate()
+    }
+}
@@ -0,0 +1,61 @@
+package com.robotemi.sdk.state
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Latest known value of one piece of robot state.
+ *
+ * An entry is warm once a value was pushed by the launcher or loaded over IPC, and turns cold
+ * again when the service connection is replaced. [version] grows on every change, so callers
+ * can detect changes by comparing two longs.
+ */
+class StateEntry<V : Any> internal constructor() {
+
+    @Volatile
+    private var value: V? = null
+
+    private val versionCounter = AtomicLong()
+
+    val version: Long
+        get() = versionCounter.get()
+
+    val isWarm: Boolean
+        get() = value != null
+
+    /**
+     * @return The mirrored value without any IPC, or `null` while the entry is cold.
+     */
+    fun peek(): V? = value
+
+    internal fun update(newValue: V) {
+        synchronized(this) {
+            if (newValue != value) {
+                value = newValue
+                versionCounter.incrementAndGet()
+            }
+        }
+    }
+
+    internal fun invalidate() {
+        synchronized(this) {
+            value = null
+            versionCounter.incrementAndGet()
+        }
+    }
+
+    /**
+     * @return The mirrored value, or the one returned by [load] while the entry is cold.
+     * A loaded value is only kept if no newer value was pushed in the meantime.
+     */
+    internal inline fun getOrLoad(load: () -> V?): V? {
+        peek()?.let { return it }
+        val loadVersion = version
+        val loaded = load() ?: return null
+        synchronized(this) {
+            if (version == loadVersion) {
+                update(loaded)
+            }
+        }
+        return peek() ?: loaded
+    }
+}
@@ -0,0 +1,86 @@
+package com.robotemi.sdk
+
+import com.robotemi.sdk.testing.DIRECT_EXECUTOR
+import com.robotemi.sdk.testing.FakeSdkService
+import com.robotemi.sdk.testing.newTestRobot
+import com.robotemi.sdk.testing.reportBenchmark
+import org.junit.After
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * Time the launcher's sending thread spends blocked on `Robot`'s two-way and one-way callback
+ * stubs, with a listener spending [HANDLING_NANOS] per event.
+ *
+ * Binder itself does not run on the JVM, so the transport is modelled: a two-way transaction
+ * runs the stub on the sender's behalf and returns when it is done, a one-way transaction only
+ * queues the call for the app's binder thread.
+ */
+class OnewayCallbackLatencyBenchmarkTest {
+
+    private val appBinderThread = Executors.newSingleThreadExecutor()
+
+    @After
+    fun tearDown() {
+        appBinderThread.shutdownNow()
+    }
+
+    @Test
+    fun onewayCallbacksDoNotBlockTheSender() {
+        val twoWayNanos = senderBlockedNanos(isOneway = false)
+        val onewayNanos = senderBlockedNanos(isOneway = true)
+
+        reportBenchmark(
+            "Sender blocked over %d events: two-way %d ms, one-way %d ms".format(
+                EVENT_COUNT,
+                TimeUnit.NANOSECONDS.toMillis(twoWayNanos),
+                TimeUnit.NANOSECONDS.toMillis(onewayNanos)
+            )
+        )
+        assertTrue(onewayNanos < twoWayNanos)
+    }
+
+    private fun senderBlockedNanos(isOneway: Boolean): Long {
+        val launcher = FakeSdkService()
+        launcher.supportsAsyncCallbacks = isOneway
+        val robot = newTestRobot()
+        val received = CountDownLatch(EVENT_COUNT)
+        robot.addTtsListener(DIRECT_EXECUTOR, object : Robot.TtsListener {
+            override fun onTtsStatusChanged(ttsRequest: TtsRequest) {
+                spin(HANDLING_NANOS)
+                received.countDown()
+            }
+        })
+        robot.setSdkService(launcher.service)
+        val ttsRequest = TtsRequest.create("hello", false)
+
+        var senderBlocked = 0L
+        for (i in 0 until EVENT_COUNT) {
+            val sentAt = System.nanoTime()
+            if (isOneway) {
+                val callback = launcher.asyncCallback!!
+                appBinderThread.execute { callback.onTtsStatusChanged(ttsRequest) }
+            } else {
+                launcher.callback!!.onTtsStatusChanged(ttsRequest)
+            }
+            senderBlocked += System.nanoTime() - sentAt
+        }
+        assertTrue(received.await(30, TimeUnit.SECONDS))
+        return senderBlocked
+    }
+
+    private fun spin(nanos: Long) {
+        val end = System.nanoTime() + nanos
+        while (System.nanoTime() < end) {
+            // Busy wait, standing in for the app's handling work.
+        }
+    }
+
+    private companion object {
+        const val EVENT_COUNT = 2_000
+        const val HANDLING_NANOS = 50_000L
+    }
+}
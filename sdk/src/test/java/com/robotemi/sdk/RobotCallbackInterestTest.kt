@@ -0,0 +1,134 @@
+package com.robotemi.sdk
+
+import com.robotemi.sdk.constants.CallbackInterest
+import com.robotemi.sdk.listeners.OnGoToLocationStatusChangedListener
+import com.robotemi.sdk.testing.DIRECT_EXECUTOR
+import com.robotemi.sdk.testing.FakeSdkService
+import com.robotemi.sdk.testing.newTestRobot
+import com.robotemi.sdk.testing.reportBenchmark
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+/**
+ * The callback interest mask `Robot` derives from its listeners and reports to the launcher.
+ */
+class RobotCallbackInterestTest {
+
+    private val robot = newTestRobot()
+
+    private val launcher = FakeSdkService()
+
+    private val ttsListener = object : Robot.TtsListener {
+        override fun onTtsStatusChanged(ttsRequest: TtsRequest) {
+        }
+    }
+
+    private val goToListener = object : OnGoToLocationStatusChangedListener {
+        override fun onGoToLocationStatusChanged(
+            location: String,
+            status: String,
+            descriptionId: Int,
+            description: String
+        ) {
+        }
+    }
+
+    @Test
+    fun connectingSendsPinnedBits() {
+        robot.setSdkService(launcher.service)
+
+        assertEquals(PINNED, launcher.callbackInterest)
+    }
+
+    @Test
+    fun listenersSetAndClearTheirBit() {
+        robot.setSdkService(launcher.service)
+
+        robot.addTtsListener(DIRECT_EXECUTOR, ttsListener)
+        assertEquals(PINNED or CallbackInterest.TTS_STATUS, launcher.callbackInterest)
+
+        robot.setMediaButtonListener(DIRECT_EXECUTOR, object : Robot.MediaButtonListener {
+            override fun onPlayButtonClicked(play: Boolean) {
+            }
+
+            override fun onNextButtonClicked() {
+            }
+
+            override fun onBackButtonClicked() {
+            }
+
+            override fun onTrackBarChanged(position: Int) {
+            }
+        })
+        assertEquals(
+            PINNED or CallbackInterest.TTS_STATUS or CallbackInterest.MEDIA_BUTTONS,
+            launcher.callbackInterest
+        )
+
+        robot.removeTtsListener(ttsListener)
+        robot.removeMediaButtonListener()
+        assertEquals(PINNED, launcher.callbackInterest)
+    }
+
+    @Test
+    fun maskIsSentAgainOnReconnect() {
+        robot.setSdkService(launcher.service)
+        robot.addTtsListener(DIRECT_EXECUTOR, ttsListener)
+        robot.setSdkService(null)
+        robot.addOnGoToLocationStatusChangedListener(DIRECT_EXECUTOR, goToListener)
+
+        val newLauncher = FakeSdkService()
+        robot.setSdkService(newLauncher.service)
+
+        assertEquals(
+            PINNED or CallbackInterest.TTS_STATUS or CallbackInterest.GO_TO_LOCATION_STATUS,
+            newLauncher.callbackInterest
+        )
+        // The mask follows the registration, which a new launcher process starts without.
+        val calls = newLauncher.calls
+        assertTrue(calls.indexOf("registerAsync") < calls.indexOf("setCallbackInterest"))
+    }
+
+    @Test
+    fun maskIsSentAfterLegacyRegistration() {
+        launcher.supportsAsyncCallbacks = false
+        robot.addTtsListener(DIRECT_EXECUTOR, ttsListener)
+
+        robot.setSdkService(launcher.service)
+
+        assertEquals(1, launcher.count("register"))
+        assertEquals(PINNED or CallbackInterest.TTS_STATUS, launcher.callbackInterest)
+    }
+
+    /**
+     * Callback transactions a launcher honouring the mask sends to an app listening to two
+     * callbacks, out of one event of every kind.
+     */
+    @Test
+    fun ipcCountBenchmark() {
+        robot.addTtsListener(DIRECT_EXECUTOR, ttsListener)
+        robot.addOnGoToLocationStatusChangedListener(DIRECT_EXECUTOR, goToListener)
+        robot.setSdkService(launcher.service)
+
+        val mask = launcher.callbackInterest!!
+        val sent = ALL_CALLBACKS.count { mask and it != 0L }
+
+        assertEquals(java.lang.Long.bitCount(PINNED) + 2, sent)
+        reportBenchmark(
+            "Callback transactions per round: %d with interest mask, %d without".format(
+                sent,
+                ALL_CALLBACKS.size
+            )
+        )
+    }
+
+    private companion object {
+        val PINNED = CallbackInterest.BATTERY_STATUS or
+                CallbackInterest.PRIVACY_MODE_STATE or
+                CallbackInterest.LOCATIONS_UPDATED or
+                CallbackInterest.REQUEST_PERMISSION_RESULT
+
+        val ALL_CALLBACKS = (0..18).map { 1L shl it }
+    }
+}
@@ -0,0 +1,129 @@
+package com.robotemi.sdk
+
+import com.robotemi.sdk.listeners.OnBatteryStatusChangedListener
+import com.robotemi.sdk.listeners.OnLocationsChangedListener
+import com.robotemi.sdk.model.LocationsDiff
+import com.robotemi.sdk.testing.DIRECT_EXECUTOR
+import com.robotemi.sdk.testing.FakeSdkService
+import com.robotemi.sdk.testing.newTestRobot
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotNull
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+/**
+ * Events arriving through the one-way callback of current launchers and the two-way callback
+ * of older ones.
+ */
+class RobotCallbackTest {
+
+    private val robot = newTestRobot()
+
+    private val launcher = FakeSdkService()
+
+    private val events = ArrayList<Any>()
+
+    private val ttsListener = object : Robot.TtsListener {
+        override fun onTtsStatusChanged(ttsRequest: TtsRequest) {
+            events.add(ttsRequest)
+        }
+    }
+
+    private val batteryListener = object : OnBatteryStatusChangedListener {
+        override fun onBatteryStatusChanged(batteryData: BatteryData?) {
+            events.add(batteryData!!)
+        }
+    }
+
+    @Test
+    fun currentLauncherGetsOnewayCallback() {
+        robot.setSdkService(launcher.service)
+
+        assertNotNull(launcher.asyncCallback)
+        assertNull(launcher.callback)
+        assertEquals(0, launcher.count("register"))
+    }
+
+    @Test
+    fun oldLauncherGetsTwoWayCallback() {
+        launcher.supportsAsyncCallbacks = false
+
+        robot.setSdkService(launcher.service)
+
+        assertEquals(1, launcher.count("registerAsync"))
+        assertEquals(1, launcher.count("register"))
+        assertNotNull(launcher.callback)
+    }
+
+    @Test
+    fun onewayCallbackDeliversEvents() {
+        robot.addTtsListener(DIRECT_EXECUTOR, ttsListener)
+        robot.addOnBatteryStatusChangedListener(DIRECT_EXECUTOR, batteryListener)
+        robot.setSdkService(launcher.service)
+        val tts = TtsRequest.create("hello", false)
+        val battery = BatteryData(42, true)
+
+        launcher.asyncCallback!!.onTtsStatusChanged(tts)
+        launcher.asyncCallback!!.onBatteryStatusChanged(battery)
+
+        assertEquals(listOf<Any>(tts, battery), events)
+        assertSame(battery, robot.stateStore.battery.peek())
+    }
+
+    @Test
+    fun twoWayCallbackDeliversEventsAndReportsListeners() {
+        launcher.supportsAsyncCallbacks = false
+        robot.addTtsListener(DIRECT_EXECUTOR, ttsListener)
+        robot.addOnBatteryStatusChangedListener(DIRECT_EXECUTOR, batteryListener)
+        robot.setSdkService(launcher.service)
+        val tts = TtsRequest.create("hello", false)
+        val battery = BatteryData(42, true)
+
+        assertTrue(launcher.callback!!.onTtsStatusChanged(tts))
+        assertTrue(launcher.callback!!.onBatteryStatusChanged(battery))
+
+        assertEquals(listOf<Any>(tts, battery), events)
+        assertSame(battery, robot.stateStore.battery.peek())
+
+        robot.removeTtsListener(ttsListener)
+        assertFalse(launcher.callback!!.onTtsStatusChanged(tts))
+        assertEquals(2, events.size)
+    }
+
+    @Test
+    fun locationsDiffStartsOverOnReconnect() {
+        robot.addOnLocationsChangedListener(DIRECT_EXECUTOR, object : OnLocationsChangedListener {
+            override fun onLocationsChanged(diff: LocationsDiff) {
+                events.add(diff)
+            }
+        })
+        robot.setSdkService(launcher.service)
+        launcher.asyncCallback!!.onLocationsUpdated(listOf("home", "kitchen"))
+
+        val newLauncher = FakeSdkService()
+        robot.setSdkService(newLauncher.service)
+        newLauncher.asyncCallback!!.onLocationsUpdated(listOf("home", "kitchen"))
+
+        assertEquals(2, events.size)
+        assertEquals(listOf("home", "kitchen"), (events[1] as LocationsDiff).added)
+    }
+
+    /**
+     * The stubs are generated from two AIDL files which could drift apart. Both forward to the
+     * same handler, so a one-way callback only has to exist with the same parameters in the
+     * two-way interface to be handled the same way.
+     */
+    @Test
+    fun everyOnewayCallbackHasTwoWayCounterpart() {
+        for (method in ISdkServiceAsyncCallback::class.java.declaredMethods) {
+            val counterpart = ISdkServiceCallback::class.java.getMethod(
+                method.name,
+                *method.parameterTypes
+            )
+            assertNotNull(method.name, counterpart)
+        }
+    }
+}
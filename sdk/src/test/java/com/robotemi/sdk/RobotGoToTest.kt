@@ -0,0 +1,104 @@
+package com.robotemi.sdk
+
+import android.os.RemoteException
+import com.robotemi.sdk.ipc.IpcCallback
+import com.robotemi.sdk.listeners.OnGoToLocationStatusChangedListener
+import com.robotemi.sdk.model.GoToStatusModel
+import com.robotemi.sdk.testing.DIRECT_EXECUTOR
+import com.robotemi.sdk.testing.FakeSdkService
+import com.robotemi.sdk.testing.awaitCondition
+import com.robotemi.sdk.testing.newTestRobot
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.TimeoutException
+
+class RobotGoToTest {
+
+    private val robot = newTestRobot()
+
+    private val launcher = FakeSdkService()
+
+    private val outcomes = ArrayList<Any>()
+
+    private val callback = object : IpcCallback<GoToStatusModel> {
+        override fun onResult(result: GoToStatusModel) {
+            synchronized(outcomes) { outcomes.add(result) }
+        }
+
+        override fun onError(error: Exception) {
+            synchronized(outcomes) { outcomes.add(error) }
+        }
+    }
+
+    private val received: List<Any>
+        get() = synchronized(outcomes) { ArrayList(outcomes) }
+
+    private fun report(status: String) {
+        launcher.asyncCallback!!.onGoToLocationStatusChanged("kitchen", status, 0, "")
+    }
+
+    @Test
+    fun finalStatusCompletesRequest() {
+        robot.setSdkService(launcher.service)
+
+        robot.goToAsync("Kitchen", callback, 60_000, DIRECT_EXECUTOR)
+        report(OnGoToLocationStatusChangedListener.START)
+        report(OnGoToLocationStatusChangedListener.COMPLETE)
+
+        assertEquals(1, launcher.count("goTo"))
+        assertEquals(1, received.size)
+        assertEquals(
+            OnGoToLocationStatusChangedListener.COMPLETE,
+            (received[0] as GoToStatusModel).status
+        )
+    }
+
+    @Test
+    fun missingFinalStatusTimesOut() {
+        robot.setSdkService(launcher.service)
+
+        robot.goToAsync("Kitchen", callback, SHORT_TIMEOUT_MILLIS, DIRECT_EXECUTOR)
+        report(OnGoToLocationStatusChangedListener.START)
+
+        awaitCondition { received.isNotEmpty() }
+        assertTrue(received[0] is TimeoutException)
+        report(OnGoToLocationStatusChangedListener.COMPLETE)
+        assertEquals(1, received.size)
+    }
+
+    @Test
+    fun lateStatusOfTimedOutRequestDoesNotCompleteNextOne() {
+        robot.setSdkService(launcher.service)
+        robot.goToAsync("Kitchen", callback, SHORT_TIMEOUT_MILLIS, DIRECT_EXECUTOR)
+        report(OnGoToLocationStatusChangedListener.START)
+        awaitCondition { received.isNotEmpty() }
+
+        robot.goToAsync("Kitchen", callback, 60_000, DIRECT_EXECUTOR)
+        report(OnGoToLocationStatusChangedListener.ABORT)
+        assertEquals(1, received.size)
+
+        report(OnGoToLocationStatusChangedListener.START)
+        report(OnGoToLocationStatusChangedListener.COMPLETE)
+        assertEquals(2, received.size)
+        assertEquals(
+            OnGoToLocationStatusChangedListener.COMPLETE,
+            (received[1] as GoToStatusModel).status
+        )
+    }
+
+    @Test
+    fun disconnectedRequestFailsRightAway() {
+        robot.goToAsync("Kitchen", callback, 60_000, DIRECT_EXECUTOR)
+
+        assertEquals(1, received.size)
+        assertTrue(received[0] is RemoteException)
+    }
+
+    private companion object {
+        /**
+         * Long enough for the test to report the start status before the request times out.
+         */
+        const val SHORT_TIMEOUT_MILLIS = 200L
+    }
+}
@@ -0,0 +1,50 @@
+package com.robotemi.sdk
+
+import com.robotemi.sdk.listeners.OnGoToLocationStatusChangedListener
+import com.robotemi.sdk.testing.DIRECT_EXECUTOR
+import com.robotemi.sdk.testing.FakeSdkService
+import com.robotemi.sdk.testing.awaitCondition
+import com.robotemi.sdk.testing.newTestRobot
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class RobotPatrolTest {
+
+    private val robot = newTestRobot()
+
+    private val launcher = FakeSdkService()
+
+    private val goToThreads = ArrayList<Thread>()
+
+    private val goToCount: Int
+        get() = synchronized(goToThreads) { goToThreads.size }
+
+    private fun report(location: String, status: String) {
+        launcher.asyncCallback!!.onGoToLocationStatusChanged(location, status, 0, "")
+    }
+
+    @Test
+    fun nextLegIsNotSentFromCallbackThread() {
+        launcher.answer("goTo") {
+            synchronized(goToThreads) { goToThreads.add(Thread.currentThread()) }
+        }
+        robot.setSdkService(launcher.service)
+
+        val run = robot.startPatrol(listOf("a", "b"), executor = DIRECT_EXECUTOR)
+        report("a", OnGoToLocationStatusChangedListener.START)
+        report("a", OnGoToLocationStatusChangedListener.COMPLETE)
+
+        awaitCondition { goToCount == 2 }
+        assertSame(Thread.currentThread(), goToThreads[0])
+        assertNotSame(Thread.currentThread(), goToThreads[1])
+        assertTrue(goToThreads[1].name.startsWith("temi-sdk-ipc-"))
+
+        report("b", OnGoToLocationStatusChangedListener.START)
+        report("b", OnGoToLocationStatusChangedListener.COMPLETE)
+        awaitCondition { !run.isRunning }
+        assertEquals(2, run.stats.legsCompleted)
+    }
+}
@@ -0,0 +1,135 @@
+package com.robotemi.sdk
+
+import com.robotemi.sdk.model.RobotInfoSnapshot
+import com.robotemi.sdk.testing.FakeSdkService
+import com.robotemi.sdk.testing.awaitCondition
+import com.robotemi.sdk.testing.newTestRobot
+import com.robotemi.sdk.testing.reportBenchmark
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Test
+
+/**
+ * Transactions made by an app connecting and reading the values carried by
+ * [RobotInfoSnapshot], which the prefetch following every connection is meant to cover.
+ */
+class RobotStartupTest {
+
+    private val robot = newTestRobot()
+
+    private val battery = BatteryData(80, false)
+
+    private val admin = UserInfo("admin", "Admin", null, 0)
+
+    private val snapshot = RobotInfoSnapshot(
+        "serial",
+        "launcher",
+        "robox",
+        "hey temi",
+        true,
+        true,
+        battery,
+        admin
+    )
+
+    @Test
+    fun startupReadsCostOneTransaction() {
+        val launcher = FakeSdkService()
+        launcher.answer("getRobotInfoSnapshot") { snapshot }
+
+        connect(launcher)
+        assertEquals(1, launcher.count("getRobotInfoSnapshot"))
+        launcher.clearCalls()
+        readAll()
+
+        assertEquals(emptyList<String>(), launcher.calls)
+    }
+
+    @Test
+    fun startupReadsAgainstOldLauncher() {
+        val launcher = FakeSdkService()
+        answerIndividually(launcher)
+
+        connect(launcher)
+        val startupTransactions = launcher.transactionCount
+        launcher.clearCalls()
+        readAll()
+
+        // The fallback prefetch warms the same entries, one transaction per value.
+        assertEquals(REGISTRATION_TRANSACTIONS + 1 + SNAPSHOT_VALUES, startupTransactions)
+        assertEquals(emptyList<String>(), launcher.calls)
+        reportBenchmark(
+            "Startup transactions: 1 with the snapshot call, %d without".format(
+                1 + SNAPSHOT_VALUES
+            )
+        )
+    }
+
+    @Test
+    fun ownHardButtonsWriteUpdatesCachedValue() {
+        val launcher = FakeSdkService()
+        launcher.answer("getRobotInfoSnapshot") { snapshot }
+        connect(launcher)
+
+        robot.isHardButtonsDisabled = false
+
+        assertEquals(1, launcher.count("toggleHardButtons"))
+        assertEquals(false, robot.isHardButtonsDisabled)
+        assertEquals(0, launcher.count("isHardButtonsDisabled"))
+    }
+
+    @Test
+    fun reconnectDropsCachedValues() {
+        val launcher = FakeSdkService()
+        launcher.answer("getRobotInfoSnapshot") { snapshot }
+        connect(launcher)
+
+        val newLauncher = FakeSdkService()
+        newLauncher.answer("getRobotInfoSnapshot") {
+            snapshot.copy(serialNumber = "other", adminInfo = UserInfo("other", "Other", null, 0))
+        }
+        connect(newLauncher)
+
+        assertEquals("other", robot.serialNumber)
+        assertEquals("other", robot.adminInfo!!.userId)
+    }
+
+    private fun connect(launcher: FakeSdkService) {
+        robot.setSdkService(launcher.service)
+        // The prefetch runs on the SDK's IPC thread.
+        awaitCondition {
+            robot.stateStore.adminInfo.isWarm && robot.stateStore.hardButtonsDisabled.isWarm
+        }
+    }
+
+    private fun readAll() {
+        assertEquals("serial", robot.serialNumber)
+        assertEquals("launcher", robot.launcherVersion)
+        assertEquals("robox", robot.roboxVersion)
+        assertEquals("hey temi", robot.wakeupWord)
+        assertEquals(true, robot.privacyMode)
+        assertEquals(true, robot.isHardButtonsDisabled)
+        assertSame(battery, robot.batteryData)
+        assertSame(admin, robot.adminInfo)
+    }
+
+    private fun answerIndividually(launcher: FakeSdkService) {
+        launcher.answer("getSerialNumber") { snapshot.serialNumber }
+        launcher.answer("getLauncherVersion") { snapshot.launcherVersion }
+        launcher.answer("getRoboxVersion") { snapshot.roboxVersion }
+        launcher.answer("getWakeupWord") { snapshot.wakeupWord }
+        launcher.answer("getPrivacyModeState") { snapshot.privacyMode }
+        launcher.answer("isHardButtonsDisabled") { snapshot.hardButtonsDisabled }
+        launcher.answer("getBatteryData") { snapshot.batteryData }
+        launcher.answer("getAdminInfo") { snapshot.adminInfo }
+    }
+
+    private companion object {
+        /**
+         * `registerAsync` and `setCallbackInterest`.
+         */
+        const val REGISTRATION_TRANSACTIONS = 2
+
+        const val SNAPSHOT_VALUES = 8
+    }
+}
@@ -0,0 +1,93 @@
+package com.robotemi.sdk.dispatch
+
+import com.robotemi.sdk.constants.CallbackInterest
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import java.util.concurrent.Executor
+
+/**
+ * How [ListenerRegistry] turns listener sets into the bits of a [CallbackInterestMask].
+ * The mask `Robot` sends to the launcher is covered by `RobotCallbackInterestTest`.
+ */
+class CallbackInterestTest {
+
+    private interface EventListener {
+        fun onEvent()
+    }
+
+    private class FakeLauncher {
+
+        var mask = 0L
+
+        var maskUpdates = 0
+
+        fun setCallbackInterest(mask: Long) {
+            this.mask = mask
+            maskUpdates++
+        }
+    }
+
+    private val directExecutor = Executor { it.run() }
+
+    private val listener = object : EventListener {
+        override fun onEvent() {
+        }
+    }
+
+    private lateinit var launcher: FakeLauncher
+
+    private lateinit var mask: CallbackInterestMask
+
+    private lateinit var registry: ListenerRegistry
+
+    @Before
+    fun setUp() {
+        launcher = FakeLauncher()
+        mask = CallbackInterestMask { launcher.setCallbackInterest(it) }
+        registry = ListenerRegistry(directExecutor, mask)
+    }
+
+    @Test
+    fun firstListenerSetsBitAndLastListenerClearsIt() {
+        val listeners = registry.listeners<EventListener>(CallbackInterest.TTS_STATUS)
+        val otherListener = object : EventListener {
+            override fun onEvent() {
+            }
+        }
+
+        listeners.add(listener)
+        listeners.add(otherListener)
+        assertEquals(CallbackInterest.TTS_STATUS, launcher.mask)
+        assertEquals(1, launcher.maskUpdates)
+
+        listeners.remove(listener)
+        assertEquals(CallbackInterest.TTS_STATUS, launcher.mask)
+
+        listeners.remove(otherListener)
+        assertEquals(0L, launcher.mask)
+        assertEquals(2, launcher.maskUpdates)
+    }
+
+    @Test
+    fun pinnedBitsStayWithoutListeners() {
+        val listeners = registry.listeners<EventListener>(CallbackInterest.BATTERY_STATUS)
+        mask.pin(CallbackInterest.BATTERY_STATUS)
+
+        listeners.add(listener)
+        listeners.remove(listener)
+
+        assertEquals(CallbackInterest.BATTERY_STATUS, launcher.mask)
+    }
+
+    @Test
+    fun keyedListenersReportInterest() {
+        val listeners = registry.keyedListeners<String, EventListener>(CallbackInterest.USER_UPDATED)
+
+        listeners.add(listener, listOf("user"), null)
+        assertEquals(CallbackInterest.USER_UPDATED, launcher.mask)
+
+        listeners.remove(listener)
+        assertEquals(0L, launcher.mask)
+    }
+}
@@ -0,0 +1,181 @@
+package com.robotemi.sdk.dispatch
+
+import com.robotemi.sdk.testing.reportBenchmark
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Assume.assumeTrue
+import org.junit.Before
+import org.junit.Test
+import java.lang.management.ManagementFactory
+import java.util.concurrent.Executor
+
+/**
+ * Bytes allocated by the dispatching thread while [ListenerSet] is in steady state, measured
+ * with HotSpot's per-thread allocation counter.
+ */
+class ListenerSetAllocationTest {
+
+    private interface StateListener {
+        fun onInt(value: Int)
+
+        fun onBoolean(value: Boolean)
+
+        fun onObject(value: Any)
+    }
+
+    private class CountingListener : StateListener {
+
+        var lastInt = 0
+
+        var lastBoolean = false
+
+        var received = 0L
+
+        override fun onInt(value: Int) {
+            lastInt = value
+            received++
+        }
+
+        override fun onBoolean(value: Boolean) {
+            lastBoolean = value
+            received++
+        }
+
+        override fun onObject(value: Any) {
+            received++
+        }
+    }
+
+    /**
+     * Runs tasks only when drained, like a looper that has not come round yet.
+     */
+    private class QueueingExecutor : Executor {
+
+        private val tasks = ArrayList<Runnable>()
+
+        override fun execute(command: Runnable) {
+            tasks.add(command)
+        }
+
+        fun drain() {
+            val drained = ArrayList(tasks)
+            tasks.clear()
+            drained.forEach { it.run() }
+        }
+    }
+
+    private lateinit var threadBean: com.sun.management.ThreadMXBean
+
+    private val mainListener = CountingListener()
+
+    private val boundListener = CountingListener()
+
+    private val listenerSet = ListenerSet<StateListener>(DIRECT_EXECUTOR)
+
+    @Before
+    fun setUp() {
+        val bean = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean
+        assumeTrue(bean != null && bean.isThreadAllocatedMemorySupported)
+        threadBean = bean!!
+        threadBean.isThreadAllocatedMemoryEnabled = true
+        listenerSet.add(mainListener)
+        listenerSet.add(boundListener, DIRECT_EXECUTOR)
+    }
+
+    @Test
+    fun dispatchDoesNotAllocate() {
+        assertSteadyState("dispatch") { i ->
+            listenerSet.dispatch(obj0 = VALUE, int0 = i) { listener, args ->
+                listener.onInt(args.int0)
+            }
+        }
+    }
+
+    @Test
+    fun intStateDoesNotBox() {
+        assertSteadyState("dispatchState(Int)") { i ->
+            listenerSet.dispatchState(BOXED_INT_BASE + i) { listener, args ->
+                listener.onInt(args.int0)
+            }
+        }
+        assertEquals(BOXED_INT_BASE + MEASURED_COUNT - 1, boundListener.lastInt)
+    }
+
+    @Test
+    fun conflatedIntStateDoesNotBox() {
+        listenerSet.isConflated = true
+        assertSteadyState("dispatchLatest(Int)") { i ->
+            listenerSet.dispatchState(BOXED_INT_BASE + i) { listener, args ->
+                listener.onInt(args.int0)
+            }
+        }
+        assertEquals(BOXED_INT_BASE + MEASURED_COUNT - 1, mainListener.lastInt)
+    }
+
+    @Test
+    fun conflatedBooleanStateDoesNotAllocate() {
+        listenerSet.isConflated = true
+        assertSteadyState("dispatchLatest(Boolean)") { i ->
+            listenerSet.dispatchState(i % 2 == 0) { listener, args ->
+                listener.onBoolean(args.bool0)
+            }
+        }
+        assertEquals((MEASURED_COUNT - 1) % 2 == 0, boundListener.lastBoolean)
+    }
+
+    @Test
+    fun conflatedObjectStateDoesNotAllocate() {
+        listenerSet.isConflated = true
+        assertSteadyState("dispatchLatest(Any)") {
+            listenerSet.dispatchState(VALUE) { listener, args -> listener.onObject(args.obj0!!) }
+        }
+    }
+
+    @Test
+    fun primitiveLatestKeepsOnlyNewestValue() {
+        val executor = QueueingExecutor()
+        val listener = CountingListener()
+        val queuedSet = ListenerSet<StateListener>(executor)
+        queuedSet.add(listener)
+
+        queuedSet.dispatchLatest(1) { target, args -> target.onInt(args.int0) }
+        queuedSet.dispatchLatest(0) { target, args -> target.onInt(args.int0) }
+        queuedSet.dispatchLatest(2) { target, args -> target.onInt(args.int0) }
+        executor.drain()
+
+        assertEquals(1L, listener.received)
+        assertEquals(2, listener.lastInt)
+        assertEquals(2L, queuedSet.dropped)
+    }
+
+    private inline fun assertSteadyState(name: String, dispatch: (Int) -> Unit) {
+        for (i in 0 until WARMUP_COUNT) {
+            dispatch(i)
+        }
+        val threadId = Thread.currentThread().id
+        val before = threadBean.getThreadAllocatedBytes(threadId)
+        for (i in 0 until MEASURED_COUNT) {
+            dispatch(i)
+        }
+        val allocated = threadBean.getThreadAllocatedBytes(threadId) - before
+        reportBenchmark("$name: $allocated bytes over $MEASURED_COUNT dispatches")
+        assertTrue("$name allocated $allocated bytes", allocated < ALLOCATION_BUDGET_BYTES)
+    }
+
+    private companion object {
+        const val WARMUP_COUNT = 20_000
+        const val MEASURED_COUNT = 100_000
+
+        /**
+         * Far below one boxed [Integer] per dispatch, leaving room for the counter itself.
+         */
+        const val ALLOCATION_BUDGET_BYTES = 16 * 1024L
+
+        /**
+         * Outside the [Integer] cache, so boxing would allocate on every dispatch.
+         */
+        const val BOXED_INT_BASE = 1_000
+        const val VALUE = "value"
+        val DIRECT_EXECUTOR = Executor { it.run() }
+    }
+}
@@ -0,0 +1,91 @@
+package com.robotemi.sdk.dispatch
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.fail
+import org.junit.Test
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+
+class ListenerSetTest {
+
+    private interface ValueListener {
+        fun onValue(value: Any)
+    }
+
+    private class RecordingListener : ValueListener {
+
+        val values = ArrayList<Any>()
+
+        override fun onValue(value: Any) {
+            values.add(value)
+        }
+    }
+
+    /**
+     * Rejects tasks until [isRejecting] is cleared, like an executor shut down and replaced.
+     */
+    private class RejectingExecutor : Executor {
+
+        var isRejecting = true
+
+        override fun execute(command: Runnable) {
+            if (isRejecting) {
+                throw RejectedExecutionException()
+            }
+            command.run()
+        }
+    }
+
+    private val listener = RecordingListener()
+
+    private val executor = RejectingExecutor()
+
+    @Test
+    fun rejectedLatestObjectDoesNotBlockLaterValues() {
+        val listenerSet = ListenerSet<ValueListener>(DIRECT_EXECUTOR)
+        listenerSet.add(listener, executor)
+
+        assertRejected { listenerSet.dispatchLatest("lost") { target, args -> target.onValue(args.obj0!!) } }
+        executor.isRejecting = false
+        listenerSet.dispatchLatest("delivered") { target, args -> target.onValue(args.obj0!!) }
+
+        assertEquals(listOf<Any>("delivered"), listener.values)
+    }
+
+    @Test
+    fun rejectedLatestPrimitiveDoesNotBlockLaterValues() {
+        val listenerSet = ListenerSet<ValueListener>(executor)
+        listenerSet.add(listener)
+
+        assertRejected { listenerSet.dispatchLatest(1) { target, args -> target.onValue(args.int0) } }
+        executor.isRejecting = false
+        listenerSet.dispatchLatest(2) { target, args -> target.onValue(args.int0) }
+
+        assertEquals(listOf<Any>(2), listener.values)
+        assertEquals(0L, listenerSet.dropped)
+    }
+
+    @Test
+    fun rejectedEventIsNotDeliveredLater() {
+        val listenerSet = ListenerSet<ValueListener>(DIRECT_EXECUTOR)
+        listenerSet.add(listener, executor)
+
+        assertRejected { listenerSet.dispatch(obj0 = "lost") { target, args -> target.onValue(args.obj0!!) } }
+        executor.isRejecting = false
+        listenerSet.dispatch(obj0 = "delivered") { target, args -> target.onValue(args.obj0!!) }
+
+        assertEquals(listOf<Any>("delivered"), listener.values)
+    }
+
+    private inline fun assertRejected(dispatch: () -> Unit) {
+        try {
+            dispatch()
+            fail("Expected the executor to reject the task")
+        } catch (expected: RejectedExecutionException) {
+        }
+    }
+
+    private companion object {
+        val DIRECT_EXECUTOR = Executor { it.run() }
+    }
+}
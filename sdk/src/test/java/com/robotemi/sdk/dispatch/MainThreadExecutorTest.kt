@@ -0,0 +1,195 @@
+package com.robotemi.sdk.dispatch
+
+import android.view.Choreographer
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Test
+
+class MainThreadExecutorTest {
+
+    /**
+     * Single-threaded looper with a manual clock and a manual vsync.
+     */
+    private class FakeScheduler : MainThreadExecutor.Scheduler {
+
+        private class Message(val task: Runnable, val whenMillis: Long)
+
+        private val messages = ArrayList<Message>()
+
+        private val frameCallbacks = ArrayList<Choreographer.FrameCallback>()
+
+        var hasChoreographer = true
+
+        var nowMillis = 0L
+            private set
+
+        val frameCallbackCount: Int
+            get() = frameCallbacks.size
+
+        val messageCount: Int
+            get() = messages.size
+
+        override fun post(task: Runnable) {
+            messages.add(Message(task, nowMillis))
+        }
+
+        override fun postDelayed(task: Runnable, delayMillis: Long) {
+            messages.add(Message(task, nowMillis + delayMillis))
+        }
+
+        override fun removeCallbacks(task: Runnable) {
+            messages.removeAll { it.task === task }
+        }
+
+        override fun postFrameCallback(callback: Choreographer.FrameCallback): Boolean {
+            if (!hasChoreographer) {
+                return false
+            }
+            frameCallbacks.add(callback)
+            return true
+        }
+
+        override fun removeFrameCallback(callback: Choreographer.FrameCallback) {
+            frameCallbacks.remove(callback)
+        }
+
+        /**
+         * Runs the messages that are due, in the order they were posted.
+         */
+        fun runDueMessages() {
+            while (true) {
+                val message = messages.firstOrNull { it.whenMillis <= nowMillis } ?: return
+                messages.remove(message)
+                message.task.run()
+            }
+        }
+
+        fun advanceBy(millis: Long) {
+            nowMillis += millis
+            runDueMessages()
+        }
+
+        fun doFrame() {
+            val callbacks = ArrayList(frameCallbacks)
+            frameCallbacks.clear()
+            callbacks.forEach { it.doFrame(nowMillis * 1_000_000) }
+        }
+    }
+
+    private val scheduler = FakeScheduler()
+
+    private val executor = MainThreadExecutor(scheduler)
+
+    private val log = ArrayList<String>()
+
+    private fun task(name: String) = Runnable { log.add(name) }
+
+    @Test
+    fun tasksArePostedOneByOneWhenNotAligned() {
+        executor.execute(task("a"))
+        executor.execute(task("b"))
+
+        assertEquals(2, scheduler.messageCount)
+        assertEquals(0, scheduler.frameCallbackCount)
+        scheduler.runDueMessages()
+        assertEquals(listOf("a", "b"), log)
+    }
+
+    @Test
+    fun alignedTasksRunTogetherOnNextFrame() {
+        executor.isFrameAligned = true
+        executor.execute(task("a"))
+        executor.execute(task("b"))
+        executor.execute(task("c"))
+
+        scheduler.runDueMessages()
+        assertEquals(emptyList<String>(), log)
+        assertEquals(1, scheduler.frameCallbackCount)
+
+        scheduler.doFrame()
+        assertEquals(listOf("a", "b", "c"), log)
+        // The fallback message was withdrawn, so nothing runs twice.
+        assertEquals(0, scheduler.messageCount)
+    }
+
+    @Test
+    fun batchIsDrainedByFallbackWhenNoFrameComes() {
+        executor.isFrameAligned = true
+        executor.execute(task("a"))
+
+        scheduler.advanceBy(49)
+        assertEquals(emptyList<String>(), log)
+
+        scheduler.advanceBy(1)
+        assertEquals(listOf("a"), log)
+        assertEquals(0, scheduler.frameCallbackCount)
+    }
+
+    @Test
+    fun batchIsPostedWhenChoreographerIsNotReady() {
+        scheduler.hasChoreographer = false
+        executor.isFrameAligned = true
+        executor.execute(task("a"))
+        executor.execute(task("b"))
+
+        assertEquals(1, scheduler.messageCount)
+        scheduler.runDueMessages()
+        assertEquals(listOf("a", "b"), log)
+    }
+
+    @Test
+    fun newBatchIsScheduledAfterDrain() {
+        executor.isFrameAligned = true
+        executor.execute(task("a"))
+        scheduler.doFrame()
+        executor.execute(task("b"))
+
+        assertEquals(1, scheduler.frameCallbackCount)
+        scheduler.doFrame()
+        assertEquals(listOf("a", "b"), log)
+    }
+
+    @Test
+    fun disablingAlignmentKeepsSubmissionOrder() {
+        executor.isFrameAligned = true
+        executor.execute(task("a"))
+        executor.execute(task("b"))
+
+        executor.isFrameAligned = false
+        executor.execute(task("c"))
+        assertEquals(0, scheduler.frameCallbackCount)
+
+        scheduler.runDueMessages()
+        executor.execute(task("d"))
+        scheduler.runDueMessages()
+        assertEquals(listOf("a", "b", "c", "d"), log)
+        assertEquals(0, scheduler.messageCount)
+    }
+
+    @Test
+    fun failingTaskDoesNotStopBatch() {
+        val first = IllegalStateException("first")
+        val second = IllegalArgumentException("second")
+        executor.isFrameAligned = true
+        executor.execute(Runnable { throw first })
+        executor.execute(task("a"))
+        executor.execute(Runnable { throw second })
+        executor.execute(task("b"))
+
+        try {
+            scheduler.doFrame()
+            fail("Expected the first failure to be rethrown")
+        } catch (e: IllegalStateException) {
+            assertSame(first, e)
+            assertEquals(1, e.suppressed.size)
+            assertSame(second, e.suppressed[0])
+        }
+        assertEquals(listOf("a", "b"), log)
+
+        executor.execute(task("c"))
+        scheduler.doFrame()
+        assertTrue(log.contains("c"))
+    }
+}
@@ -0,0 +1,89 @@
+package com.robotemi.sdk.dispatch
+
+import com.robotemi.sdk.testing.reportBenchmark
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Main-thread wakeups caused by an event storm, with listeners on the main thread and with
+ * listeners bound to their own executor.
+ */
+class MainThreadWakeupBenchmarkTest {
+
+    private interface EventListener {
+        fun onEvent(value: Int)
+    }
+
+    /**
+     * Stands in for the main looper, counting every task posted to it.
+     */
+    private class CountingExecutor : Executor {
+
+        val tasks = AtomicLong()
+
+        override fun execute(command: Runnable) {
+            tasks.incrementAndGet()
+            command.run()
+        }
+    }
+
+    private class CountingListener : EventListener {
+
+        var received = 0L
+
+        override fun onEvent(value: Int) {
+            received++
+        }
+    }
+
+    @Test
+    fun mainThreadListenersWakeMainThreadOncePerEvent() {
+        val mainExecutor = CountingExecutor()
+        val listeners = List(LISTENER_COUNT) { CountingListener() }
+        val listenerSet = ListenerSet<EventListener>(mainExecutor)
+        listeners.forEach { listenerSet.add(it) }
+
+        val rate = storm(listenerSet, mainExecutor)
+
+        assertEquals(EVENT_COUNT.toLong(), mainExecutor.tasks.get())
+        listeners.forEach { assertEquals(EVENT_COUNT.toLong(), it.received) }
+        reportBenchmark("Main-thread listeners: %.0f main-thread wakeups/s".format(rate))
+    }
+
+    @Test
+    fun executorBoundListenersNeverWakeMainThread() {
+        val mainExecutor = CountingExecutor()
+        val listeners = List(LISTENER_COUNT) { CountingListener() }
+        val listenerSet = ListenerSet<EventListener>(mainExecutor)
+        listeners.forEach { listenerSet.add(it, DIRECT_EXECUTOR) }
+
+        val rate = storm(listenerSet, mainExecutor)
+
+        assertEquals(0L, mainExecutor.tasks.get())
+        listeners.forEach { assertEquals(EVENT_COUNT.toLong(), it.received) }
+        reportBenchmark("Executor-bound listeners: %.0f main-thread wakeups/s".format(rate))
+    }
+
+    /**
+     * @return Main-thread wakeups per second over the storm.
+     */
+    private fun storm(
+        listenerSet: ListenerSet<EventListener>,
+        mainExecutor: CountingExecutor
+    ): Double {
+        val start = System.nanoTime()
+        for (i in 0 until EVENT_COUNT) {
+            listenerSet.dispatch(int0 = i) { listener, args -> listener.onEvent(args.int0) }
+        }
+        val elapsedSeconds = (System.nanoTime() - start) / 1e9
+        return mainExecutor.tasks.get() / elapsedSeconds
+    }
+
+    private companion object {
+        const val EVENT_COUNT = 100_000
+        const val LISTENER_COUNT = 4
+        val DIRECT_EXECUTOR = Executor { it.run() }
+    }
+}
@@ -0,0 +1,148 @@
+package com.robotemi.sdk.ipc
+
+import com.robotemi.sdk.testing.FakeSdkService
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.ScheduledThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+
+class JoystickChannelTest {
+
+    /**
+     * Sender whose ticks only run when the test calls [tick], and which runs other tasks
+     * inline.
+     */
+    private class ManualSender : ScheduledThreadPoolExecutor(1) {
+
+        private var ticker: Runnable? = null
+
+        override fun scheduleAtFixedRate(
+            command: Runnable,
+            initialDelay: Long,
+            period: Long,
+            unit: TimeUnit
+        ): ScheduledFuture<*> {
+            ticker = command
+            return schedule(Runnable {}, 0, unit)
+        }
+
+        override fun execute(command: Runnable) {
+            command.run()
+        }
+
+        fun tick() {
+            ticker!!.run()
+        }
+    }
+
+    private val launcher = FakeSdkService()
+
+    private val sender = ManualSender()
+
+    private val sent = ArrayList<Pair<Float, Float>>()
+
+    private lateinit var channel: JoystickChannel
+
+    private fun open(supportsOneway: Boolean = true) {
+        launcher.answer("openJoystickChannel") { supportsOneway }
+        val record = { args: Array<out Any?> -> sent.add((args[0] as Float) to (args[1] as Float)) }
+        launcher.answer("skidJoyOneway", record)
+        launcher.answer("skidJoy", record)
+        channel = JoystickChannel(PERIOD_MILLIS, { launcher.service }, sender)
+    }
+
+    @After
+    fun tearDown() {
+        sender.shutdownNow()
+    }
+
+    @Test
+    fun heldVectorIsRepeatedEveryTick() {
+        open()
+        channel.move(0.5f, 0f)
+
+        sender.tick()
+        sender.tick()
+        sender.tick()
+
+        assertEquals(List(3) { 0.5f to 0f }, sent)
+        assertEquals(1L, channel.stats.sent)
+        assertEquals(3, launcher.count("skidJoyOneway"))
+    }
+
+    @Test
+    fun centeredStickStopsRepeats() {
+        open()
+        channel.move(0.5f, 0f)
+        sender.tick()
+        channel.move(0f, 0f)
+        sender.tick()
+
+        sender.tick()
+        sender.tick()
+
+        assertEquals(listOf(0.5f to 0f, 0f to 0f), sent)
+    }
+
+    @Test
+    fun onlyLatestVectorOfTickIsSent() {
+        open()
+        channel.move(0.1f, 0f)
+        channel.move(0.2f, 0f)
+        channel.move(0.3f, 0f)
+
+        sender.tick()
+
+        assertEquals(listOf(0.3f to 0f), sent)
+        assertEquals(2L, channel.stats.dropped)
+    }
+
+    @Test
+    fun closeSendsFinalStop() {
+        open()
+        channel.move(0.5f, 0f)
+        sender.tick()
+        channel.move(0.7f, 0f)
+
+        channel.close()
+        channel.close()
+
+        assertEquals(listOf(0.5f to 0f, 0f to 0f), sent)
+    }
+
+    @Test
+    fun oldLauncherGetsTwoWayCalls() {
+        open(supportsOneway = false)
+        channel.move(0.5f, 0f)
+
+        sender.tick()
+
+        assertEquals(1, launcher.count("skidJoy"))
+        assertEquals(0, launcher.count("skidJoyOneway"))
+    }
+
+    @Test
+    fun runtimeFailureDoesNotStopTicks() {
+        open()
+        var failures = 1
+        launcher.answer("skidJoyOneway") { args ->
+            if (failures-- > 0) {
+                throw SecurityException("Not allowed to move")
+            }
+            sent.add((args[0] as Float) to (args[1] as Float))
+        }
+        channel.move(0.5f, 0f)
+
+        sender.tick()
+        sender.tick()
+
+        assertEquals(listOf(0.5f to 0f), sent)
+        assertEquals(1L, channel.stats.failed)
+    }
+
+    private companion object {
+        const val PERIOD_MILLIS = 33L
+    }
+}
@@ -0,0 +1,108 @@
+package com.robotemi.sdk.ipc
+
+import android.os.RemoteException
+import com.robotemi.sdk.listeners.OnMainThreadIpcListener
+import com.robotemi.sdk.testing.FakeSdkService
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.fail
+import org.junit.Test
+
+class MainThreadIpcDetectorTest {
+
+    private val launcher = FakeSdkService()
+
+    private var nowMillis = 0L
+
+    private var isMainThread = true
+
+    private val violations = ArrayList<MainThreadIpcViolation>()
+
+    private val listener = object : OnMainThreadIpcListener {
+        override fun onMainThreadIpc(violation: MainThreadIpcViolation) {
+            violations.add(violation)
+        }
+    }
+
+    private fun detector(crash: Boolean) = MainThreadIpcDetector(
+        BUDGET_MILLIS,
+        listener,
+        crash,
+        { isMainThread },
+        { nowMillis }
+    )
+
+    @Test
+    fun fastCallIsNotReported() {
+        launcher.answer("getSerialNumber") {
+            nowMillis += BUDGET_MILLIS
+            "serial"
+        }
+
+        assertEquals("serial", detector(crash = true).wrap(launcher.service).serialNumber)
+        assertEquals(0, violations.size)
+    }
+
+    @Test
+    fun slowCallIsReportedAndThrownWhenCrashing() {
+        launcher.answer("getSerialNumber") {
+            nowMillis += SLOW_MILLIS
+            "serial"
+        }
+
+        try {
+            detector(crash = true).wrap(launcher.service).serialNumber
+            fail("Expected a violation")
+        } catch (e: MainThreadIpcViolation) {
+            assertEquals("getSerialNumber", e.methodName)
+            assertEquals(SLOW_MILLIS, e.durationMillis)
+        }
+        assertEquals(1, violations.size)
+    }
+
+    @Test
+    fun slowCallReturnsWhenNotCrashing() {
+        launcher.answer("getSerialNumber") {
+            nowMillis += SLOW_MILLIS
+            "serial"
+        }
+
+        assertEquals("serial", detector(crash = false).wrap(launcher.service).serialNumber)
+        assertEquals(1, violations.size)
+    }
+
+    @Test
+    fun failingSlowCallKeepsItsOwnException() {
+        val failure = RemoteException("Launcher died")
+        launcher.answer("getSerialNumber") {
+            nowMillis += SLOW_MILLIS
+            throw failure
+        }
+
+        try {
+            detector(crash = true).wrap(launcher.service).serialNumber
+            fail("Expected the call's failure")
+        } catch (e: RemoteException) {
+            assertSame(failure, e)
+            assertEquals(1, e.suppressed.size)
+            assertSame(violations[0], e.suppressed[0])
+        }
+    }
+
+    @Test
+    fun backgroundCallsAreNotTimed() {
+        isMainThread = false
+        launcher.answer("getSerialNumber") {
+            nowMillis += SLOW_MILLIS
+            "serial"
+        }
+
+        assertEquals("serial", detector(crash = true).wrap(launcher.service).serialNumber)
+        assertEquals(0, violations.size)
+    }
+
+    private companion object {
+        const val BUDGET_MILLIS = 16L
+        const val SLOW_MILLIS = 40L
+    }
+}
@@ -0,0 +1,99 @@
+package com.robotemi.sdk.ipc
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Assert.fail
+import org.junit.Test
+import java.io.IOException
+
+class PagedIteratorTest {
+
+    /**
+     * Launcher holding [items], which may change while snapshots are open.
+     */
+    private class FakeSource(
+        var items: List<Int>,
+        private val supportsSnapshots: Boolean = true
+    ) : PagedSource<Int> {
+
+        val snapshots = HashMap<String, List<Int>>()
+
+        val closed = ArrayList<String>()
+
+        var failAtOffset = -1
+
+        override fun openSnapshot(): String? {
+            if (!supportsSnapshots) {
+                return null
+            }
+            val token = "snapshot-${snapshots.size}"
+            snapshots[token] = ArrayList(items)
+            return token
+        }
+
+        override fun fetchPage(snapshotToken: String, offset: Int, limit: Int): List<Int> {
+            if (offset == failAtOffset) {
+                throw IOException("Transaction failed")
+            }
+            val snapshot = snapshots.getValue(snapshotToken)
+            return snapshot.subList(offset, minOf(offset + limit, snapshot.size))
+        }
+
+        override fun fetchAll(): List<Int> = items
+
+        override fun closeSnapshot(snapshotToken: String) {
+            closed.add(snapshotToken)
+        }
+    }
+
+    @Test
+    fun pagesComeFromOneSnapshot() {
+        val source = FakeSource((0 until 10).toList())
+        val iterator = PagedIterator(PAGE_SIZE, null, source)
+        val received = ArrayList<Int>()
+        while (iterator.hasNext()) {
+            received.add(iterator.next())
+            if (received.size == 1) {
+                // Removing an item already transferred would shift offset-based pages.
+                source.items = (1 until 10).toList()
+            }
+        }
+
+        assertEquals((0 until 10).toList(), received)
+        assertEquals(listOf("snapshot-0"), source.closed)
+    }
+
+    @Test
+    fun failedPageIsReportedWithTransferredCount() {
+        val source = FakeSource((0 until 10).toList())
+        source.failAtOffset = PAGE_SIZE * 2
+        val iterator = PagedIterator(PAGE_SIZE, null, source)
+        var received = 0
+        try {
+            while (iterator.hasNext()) {
+                iterator.next()
+                received++
+            }
+            fail("Expected PartialTransferException")
+        } catch (e: PartialTransferException) {
+            assertEquals(PAGE_SIZE * 2, e.transferredCount)
+            assertTrue(e.cause is IOException)
+        }
+        assertEquals(PAGE_SIZE * 2, received)
+        assertEquals(listOf("snapshot-0"), source.closed)
+    }
+
+    @Test
+    fun launcherWithoutSnapshotsSendsWholeList() {
+        val source = FakeSource((0 until 10).toList(), supportsSnapshots = false)
+
+        val received = PagedIterator(PAGE_SIZE, null, source).asSequence().toList()
+
+        assertEquals((0 until 10).toList(), received)
+        assertTrue(source.closed.isEmpty())
+    }
+
+    private companion object {
+        const val PAGE_SIZE = 3
+    }
+}
@@ -0,0 +1,140 @@
+package com.robotemi.sdk.ipc
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class PendingCommandQueueTest {
+
+    private var nowMillis = 0L
+
+    private var isConnected = false
+
+    private val queue = PendingCommandQueue<String>(CAPACITY, TTL_MILLIS) { nowMillis }
+
+    private fun offer(command: String, latestKey: String? = null): Boolean {
+        return queue.queueIfPending(latestKey, command) { isConnected }
+    }
+
+    private fun flush(): List<String> {
+        val sent = ArrayList<String>()
+        while (true) {
+            sent.add(queue.pollForFlush() ?: break)
+        }
+        return sent
+    }
+
+    @Test
+    fun connectedCommandIsSentRightAway() {
+        isConnected = true
+
+        assertFalse(offer("a"))
+        assertEquals(emptyList<String>(), flush())
+    }
+
+    @Test
+    fun disconnectedCommandsAreFlushedInIssueOrder() {
+        assertTrue(offer("a"))
+        assertTrue(offer("b"))
+        assertTrue(offer("c"))
+
+        assertEquals(listOf("a", "b", "c"), flush())
+        assertEquals(emptyList<String>(), flush())
+    }
+
+    @Test
+    fun expiredCommandsAreSkipped() {
+        offer("a")
+        nowMillis = TTL_MILLIS / 2
+        offer("b")
+
+        nowMillis = TTL_MILLIS
+        assertEquals(listOf("b"), flush())
+    }
+
+    @Test
+    fun expiredCommandsDoNotTakeCapacity() {
+        repeat(CAPACITY) { offer("old $it") }
+        nowMillis = TTL_MILLIS
+
+        offer("a")
+        offer("b")
+
+        assertEquals(listOf("a", "b"), flush())
+    }
+
+    @Test
+    fun latestCommandOfKeyReplacesEarlierOne() {
+        offer("tilt 10", latestKey = "tilt")
+        offer("turn", latestKey = null)
+        offer("tilt 20", latestKey = "tilt")
+
+        assertEquals(listOf("turn", "tilt 20"), flush())
+    }
+
+    @Test
+    fun commandsWithoutKeyAreAllKept() {
+        offer("turn")
+        offer("turn")
+
+        assertEquals(listOf("turn", "turn"), flush())
+    }
+
+    @Test
+    fun fullQueueDropsOldestCommand() {
+        repeat(CAPACITY + 2) { offer("$it") }
+
+        assertEquals((2 until CAPACITY + 2).map { "$it" }, flush())
+    }
+
+    @Test
+    fun commandsIssuedDuringFlushQueueBehindIt() {
+        offer("a")
+        offer("b")
+        isConnected = true
+
+        assertEquals("a", queue.pollForFlush())
+        assertTrue(offer("c"))
+
+        assertEquals(listOf("b", "c"), flush())
+        assertFalse(offer("d"))
+    }
+
+    @Test
+    fun interruptedFlushDropsRemainingCommands() {
+        offer("a")
+        offer("b")
+        isConnected = true
+        assertEquals("a", queue.pollForFlush())
+
+        queue.endFlush()
+
+        assertFalse(offer("c"))
+        assertEquals(emptyList<String>(), flush())
+    }
+
+    @Test
+    fun endFlushAfterCompleteFlushKeepsNewCommands() {
+        offer("a")
+        flush()
+        queue.endFlush()
+        isConnected = false
+
+        offer("b")
+        queue.endFlush()
+
+        assertEquals(listOf("b"), flush())
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun capacityMustBePositive() {
+        PendingCommandQueue<String>(0, TTL_MILLIS)
+    }
+
+    private companion object {
+        const val CAPACITY = 4
+        const val TTL_MILLIS = 1_000L
+    }
+}
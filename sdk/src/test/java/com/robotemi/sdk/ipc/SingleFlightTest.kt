@@ -0,0 +1,122 @@
+package com.robotemi.sdk.ipc
+
+import com.robotemi.sdk.testing.awaitCondition
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertSame
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class SingleFlightTest {
+
+    private val singleFlight = SingleFlight()
+
+    private val callers = Executors.newCachedThreadPool()
+
+    private val calls = AtomicInteger()
+
+    private val release = CountDownLatch(1)
+
+    @After
+    fun tearDown() {
+        release.countDown()
+        callers.shutdownNow()
+    }
+
+    @Test
+    fun concurrentCallersShareOneCall() {
+        val result = Any()
+        val futures = startCallers(KEY) {
+            release.await()
+            result
+        }
+
+        release.countDown()
+
+        futures.forEach { assertSame(result, it.get(5, TimeUnit.SECONDS)) }
+        assertEquals(1, calls.get())
+        assertEquals((CALLER_COUNT - 1).toLong(), singleFlight.saved)
+    }
+
+    @Test
+    fun failureReachesEveryWaiter() {
+        val failure = IllegalStateException("Transaction failed")
+        val futures = startCallers<Any>(KEY) {
+            release.await()
+            throw failure
+        }
+
+        release.countDown()
+
+        for (future in futures) {
+            try {
+                future.get(5, TimeUnit.SECONDS)
+                throw AssertionError("Expected the call's failure")
+            } catch (e: ExecutionException) {
+                assertSame(failure, e.cause)
+            }
+        }
+        assertEquals(1, calls.get())
+    }
+
+    @Test
+    fun completedCallIsNotReused() {
+        assertEquals(1, singleFlight.run(KEY) { calls.incrementAndGet() })
+        assertEquals(2, singleFlight.run(KEY) { calls.incrementAndGet() })
+        assertEquals(0L, singleFlight.saved)
+    }
+
+    @Test
+    fun failedCallIsNotReused() {
+        try {
+            singleFlight.run<Int>(KEY) { throw IllegalStateException() }
+        } catch (expected: IllegalStateException) {
+        }
+        assertEquals(1, singleFlight.run(KEY) { calls.incrementAndGet() })
+    }
+
+    @Test
+    fun differentKeysDoNotShare() {
+        val first = startCallers("first", count = 1) { release.await() }
+        val second = startCallers("second", count = 1) { release.await() }
+        release.countDown()
+
+        (first + second).forEach { it.get(5, TimeUnit.SECONDS) }
+        assertEquals(0L, singleFlight.saved)
+    }
+
+    /**
+     * Starts [count] callers of [key] and returns once the first one runs [call] and all the
+     * others are waiting for it.
+     */
+    private fun <T> startCallers(
+        key: String,
+        count: Int = CALLER_COUNT,
+        call: () -> T
+    ): List<Future<T>> {
+        val savedBefore = singleFlight.saved
+        val callsBefore = calls.get()
+        val futures = List(count) {
+            callers.submit<T> {
+                singleFlight.run(key) {
+                    calls.incrementAndGet()
+                    call()
+                }
+            }
+        }
+        awaitCondition {
+            calls.get() == callsBefore + 1 && singleFlight.saved == savedBefore + count - 1
+        }
+        return futures
+    }
+
+    private companion object {
+        const val KEY = "getAdminInfo()"
+        const val CALLER_COUNT = 4
+    }
+}
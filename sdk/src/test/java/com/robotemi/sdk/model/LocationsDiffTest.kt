@@ -0,0 +1,97 @@
+package com.robotemi.sdk.model
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class LocationsDiffTest {
+
+    @Test
+    fun firstListIsAllAdded() {
+        val diff = LocationsDiff.compute(emptyList(), listOf("home", "kitchen"))
+
+        assertEquals(listOf("home", "kitchen"), diff.added)
+        assertEquals(emptyList<String>(), diff.removed)
+        assertEquals(emptyMap<String, String>(), diff.renamed)
+    }
+
+    @Test
+    fun sameListIsEmpty() {
+        assertTrue(LocationsDiff.compute(listOf("home", "kitchen"), listOf("home", "kitchen")).isEmpty)
+    }
+
+    @Test
+    fun additionsAndRemovals() {
+        val diff = LocationsDiff.compute(
+            listOf("home", "kitchen", "office"),
+            listOf("home", "office", "garage")
+        )
+
+        assertEquals(listOf("garage"), diff.added)
+        assertEquals(listOf("kitchen"), diff.removed)
+        assertEquals(emptyMap<String, String>(), diff.renamed)
+        assertEquals(listOf("home", "office", "garage"), diff.locations)
+    }
+
+    @Test
+    fun renameInPlace() {
+        val diff = LocationsDiff.compute(
+            listOf("home", "kitchen", "office"),
+            listOf("home", "pantry", "office")
+        )
+
+        assertEquals(mapOf("kitchen" to "pantry"), diff.renamed)
+        assertEquals(emptyList<String>(), diff.added)
+        assertEquals(emptyList<String>(), diff.removed)
+    }
+
+    @Test
+    fun renamesAtSeveralPlaces() {
+        val diff = LocationsDiff.compute(
+            listOf("home", "kitchen", "office", "garage"),
+            listOf("entrance", "kitchen", "office", "workshop")
+        )
+
+        assertEquals(mapOf("home" to "entrance", "garage" to "workshop"), diff.renamed)
+    }
+
+    @Test
+    fun deletionElsewhereIsNotRename() {
+        val diff = LocationsDiff.compute(
+            listOf("home", "kitchen", "office"),
+            listOf("kitchen", "office", "lobby")
+        )
+
+        assertEquals(listOf("lobby"), diff.added)
+        assertEquals(listOf("home"), diff.removed)
+        assertEquals(emptyMap<String, String>(), diff.renamed)
+    }
+
+    /**
+     * With same-index matching, removing "home" shifts "lobby" onto the index "kitchen" had,
+     * and the pair used to be reported as a rename.
+     */
+    @Test
+    fun shiftedInsertionIsNotRename() {
+        val diff = LocationsDiff.compute(
+            listOf("home", "kitchen", "office"),
+            listOf("office", "lobby")
+        )
+
+        assertEquals(listOf("lobby"), diff.added)
+        assertEquals(listOf("home", "kitchen"), diff.removed)
+        assertEquals(emptyMap<String, String>(), diff.renamed)
+    }
+
+    @Test
+    fun unevenChangeAtOnePlaceIsNotRename() {
+        val diff = LocationsDiff.compute(
+            listOf("home", "kitchen", "office"),
+            listOf("home", "pantry", "cellar", "office")
+        )
+
+        assertEquals(listOf("pantry", "cellar"), diff.added)
+        assertEquals(listOf("kitchen"), diff.removed)
+        assertEquals(emptyMap<String, String>(), diff.renamed)
+    }
+}
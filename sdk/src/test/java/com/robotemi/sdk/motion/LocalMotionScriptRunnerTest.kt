@@ -0,0 +1,139 @@
+package com.robotemi.sdk.motion
+
+import android.os.IBinder
+import android.os.RemoteException
+import com.robotemi.sdk.IMotionScriptCallback
+import com.robotemi.sdk.testing.DIRECT_EXECUTOR
+import com.robotemi.sdk.testing.FakeSdkService
+import com.robotemi.sdk.testing.awaitCondition
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class LocalMotionScriptRunnerTest {
+
+    /**
+     * Records the progress of a script as `completed <step>` and `aborted <step>: <reason>`.
+     */
+    private class RecordingCallback : IMotionScriptCallback {
+
+        private val recorded = ArrayList<String>()
+
+        val events: List<String>
+            get() = synchronized(recorded) { ArrayList(recorded) }
+
+        override fun onStepCompleted(step: Int) {
+            synchronized(recorded) { recorded.add("completed $step") }
+        }
+
+        override fun onAborted(step: Int, reason: String) {
+            synchronized(recorded) { recorded.add("aborted $step: $reason") }
+        }
+
+        override fun asBinder(): IBinder? = null
+    }
+
+    private val launcher = FakeSdkService()
+
+    private var isConnected = true
+
+    private var nowMillis = 0L
+
+    private val callback = RecordingCallback()
+
+    private val runner = LocalMotionScriptRunner(
+        { if (isConnected) launcher.service else null },
+        DIRECT_EXECUTOR,
+        { nowMillis }
+    )
+
+    @Test
+    fun everyStepCompletesInOrder() {
+        runner.run(
+            MotionScript.Builder().turnBy(90).tiltAngle(30).tiltBy(-10).stopMovement().build(),
+            callback
+        )
+
+        assertEquals(listOf("turnBy", "tiltAngle", "tiltBy", "stopMovement"), launcher.calls)
+        assertEquals(
+            listOf("completed 0", "completed 1", "completed 2", "completed 3"),
+            callback.events
+        )
+    }
+
+    @Test
+    fun skidJoyIsRepeatedForItsDuration() {
+        launcher.answer("skidJoy") {
+            nowMillis += SKID_JOY_PERIOD_MILLIS
+            null
+        }
+
+        runner.run(
+            MotionScript.Builder().skidJoy(0.5f, 0f, 3 * SKID_JOY_PERIOD_MILLIS).build(),
+            callback
+        )
+
+        assertEquals(3, launcher.count("skidJoy"))
+        assertEquals(listOf("completed 0"), callback.events)
+    }
+
+    @Test
+    fun failedStepAbortsScript() {
+        launcher.answer("tiltAngle") { throw RemoteException("Launcher died") }
+
+        runner.run(MotionScript.Builder().turnBy(90).tiltAngle(30).turnBy(-90).build(), callback)
+
+        assertEquals(listOf("turnBy", "tiltAngle"), launcher.calls)
+        assertEquals(2, callback.events.size)
+        assertEquals("completed 0", callback.events[0])
+        assertTrue(callback.events[1].startsWith("aborted 1: "))
+    }
+
+    @Test
+    fun disconnectedRunnerAbortsAtFirstStep() {
+        isConnected = false
+
+        runner.run(MotionScript.Builder().turnBy(90).build(), callback)
+
+        assertEquals(listOf("aborted 0: Not connected"), callback.events)
+    }
+
+    @Test
+    fun abortDuringStepStopsBeforeNextOne() {
+        launcher.answer("turnBy") { runner.abort() }
+
+        runner.run(MotionScript.Builder().turnBy(90).tiltAngle(30).build(), callback)
+
+        assertEquals(listOf("turnBy"), launcher.calls)
+        assertEquals(listOf("aborted 0: Aborted"), callback.events)
+    }
+
+    @Test
+    fun abortCutsWaitShort() {
+        val threadRunner = LocalMotionScriptRunner({ launcher.service })
+
+        threadRunner.run(MotionScript.Builder().turnBy(90).pause(60_000).build(), callback)
+        awaitCondition { callback.events == listOf("completed 0") }
+        threadRunner.abort()
+
+        awaitCondition { callback.events.size == 2 }
+        assertEquals("aborted 1: Aborted", callback.events[1])
+    }
+
+    @Test
+    fun newScriptAbortsRunningOne() {
+        val threadRunner = LocalMotionScriptRunner({ launcher.service })
+        val second = RecordingCallback()
+
+        threadRunner.run(MotionScript.Builder().pause(60_000).turnBy(90).build(), callback)
+        threadRunner.run(MotionScript.Builder().tiltAngle(30).build(), second)
+
+        awaitCondition { second.events == listOf("completed 0") }
+        assertEquals(listOf("aborted 0: Aborted"), callback.events)
+        assertEquals(listOf("tiltAngle"), launcher.calls)
+    }
+
+    private companion object {
+        const val SKID_JOY_PERIOD_MILLIS = 100L
+    }
+}
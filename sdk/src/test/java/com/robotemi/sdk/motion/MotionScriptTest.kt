@@ -0,0 +1,132 @@
+package com.robotemi.sdk.motion
+
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class MotionScriptTest {
+
+    /**
+     * In-memory stand-in for a Parcel, which is a stub in unit tests. Values are read back in
+     * the order they were written.
+     */
+    private class FakeParcel : MotionScript.Writer, MotionScript.Reader {
+
+        val values = ArrayList<Any>()
+
+        private var position = 0
+
+        override fun writeInt(value: Int) {
+            values.add(value)
+        }
+
+        override fun writeIntArray(value: IntArray) {
+            values.add(value.copyOf())
+        }
+
+        override fun writeFloatArray(value: FloatArray) {
+            values.add(value.copyOf())
+        }
+
+        override fun writeLongArray(value: LongArray) {
+            values.add(value.copyOf())
+        }
+
+        override fun readInt() = values[position++] as Int
+
+        override fun createIntArray() = values[position++] as IntArray
+
+        override fun createFloatArray() = values[position++] as FloatArray
+
+        override fun createLongArray() = values[position++] as LongArray
+    }
+
+    private val script = MotionScript.Builder()
+        .turnBy(90, 1_000)
+        .tiltAngle(30)
+        .skidJoy(0.5f, -0.25f, 2_000)
+        .pause(500)
+        .stopMovement()
+        .build()
+
+    @Test
+    fun builderStoresStepsColumnWise() {
+        assertEquals(5, script.stepCount)
+        assertArrayEquals(
+            intArrayOf(
+                MotionScript.OP_TURN_BY,
+                MotionScript.OP_TILT_ANGLE,
+                MotionScript.OP_SKID_JOY,
+                MotionScript.OP_PAUSE,
+                MotionScript.OP_STOP_MOVEMENT
+            ),
+            script.ops
+        )
+        assertArrayEquals(
+            floatArrayOf(90f, 0f, 30f, 0f, 0.5f, -0.25f, 0f, 0f, 0f, 0f),
+            script.args,
+            0f
+        )
+        assertArrayEquals(longArrayOf(1_000, 0, 2_000, 500, 0), script.durationsMillis)
+    }
+
+    @Test
+    fun writesPublishedLayout() {
+        val parcel = FakeParcel()
+
+        script.writeTo(parcel)
+
+        assertEquals(4, parcel.values.size)
+        assertEquals(MotionScript.FORMAT_VERSION, parcel.values[0])
+        assertArrayEquals(script.ops, parcel.values[1] as IntArray)
+        assertArrayEquals(script.args, parcel.values[2] as FloatArray, 0f)
+        assertArrayEquals(script.durationsMillis, parcel.values[3] as LongArray)
+    }
+
+    @Test
+    fun roundTrip() {
+        val parcel = FakeParcel()
+        script.writeTo(parcel)
+
+        val read = MotionScript.readFrom(parcel)
+
+        assertArrayEquals(script.ops, read.ops)
+        assertArrayEquals(script.args, read.args, 0f)
+        assertArrayEquals(script.durationsMillis, read.durationsMillis)
+    }
+
+    @Test
+    fun emptyScriptRoundTrips() {
+        val parcel = FakeParcel()
+        MotionScript.Builder().build().writeTo(parcel)
+
+        assertEquals(0, MotionScript.readFrom(parcel).stepCount)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun otherVersionIsRejected() {
+        val parcel = FakeParcel()
+        parcel.writeInt(MotionScript.FORMAT_VERSION + 1)
+        parcel.writeIntArray(intArrayOf())
+        parcel.writeFloatArray(floatArrayOf())
+        parcel.writeLongArray(longArrayOf())
+
+        MotionScript.readFrom(parcel)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun inconsistentColumnsAreRejected() {
+        val parcel = FakeParcel()
+        parcel.writeInt(MotionScript.FORMAT_VERSION)
+        parcel.writeIntArray(intArrayOf(MotionScript.OP_TURN_BY))
+        parcel.writeFloatArray(floatArrayOf(90f))
+        parcel.writeLongArray(longArrayOf(0))
+
+        MotionScript.readFrom(parcel)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun negativeDurationIsRejected() {
+        MotionScript.Builder().pause(-1)
+    }
+}
@@ -0,0 +1,169 @@
+package com.robotemi.sdk.navigation
+
+import com.robotemi.sdk.listeners.OnGoToLocationStatusChangedListener.Companion.ABORT
+import com.robotemi.sdk.listeners.OnGoToLocationStatusChangedListener.Companion.COMPLETE
+import com.robotemi.sdk.listeners.OnGoToLocationStatusChangedListener.Companion.GOING
+import com.robotemi.sdk.listeners.OnGoToLocationStatusChangedListener.Companion.START
+import com.robotemi.sdk.model.GoToStatusModel
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.FutureTask
+
+class GoToTrackerTest {
+
+    private val tracker = GoToTracker()
+
+    private val outcomes = ArrayList<String>()
+
+    private fun track(request: String, location: String = "Kitchen"): GoToTracker.Pending {
+        return tracker.track(location) { outcomes.add("$request ${it.status}") }
+    }
+
+    private fun report(status: String, location: String = "kitchen"): Boolean {
+        return tracker.onStatusChanged(GoToStatusModel(location, status, 0, ""))
+    }
+
+    private fun newTimeout() = FutureTask<Unit>(Runnable {}, Unit)
+
+    @Test
+    fun finalStatusCompletesRequest() {
+        track("a")
+
+        assertTrue(report(START))
+        assertTrue(report(GOING))
+        assertEquals(emptyList<String>(), outcomes)
+        assertTrue(report(COMPLETE))
+
+        assertEquals(listOf("a complete"), outcomes)
+        assertFalse(report(COMPLETE))
+    }
+
+    @Test
+    fun locationsMatchRegardlessOfCase() {
+        track("a", location = " Kitchen ")
+        track("b", location = "Office")
+
+        report(START, location = "KITCHEN")
+        report(COMPLETE, location = "KITCHEN")
+
+        assertEquals(listOf("a complete"), outcomes)
+    }
+
+    @Test
+    fun requestsForSameLocationCompleteTogether() {
+        track("a")
+        track("b")
+
+        report(START)
+        report(ABORT)
+
+        assertEquals(listOf("a abort", "b abort"), outcomes)
+    }
+
+    @Test
+    fun abortBeforeStartCompletesRequest() {
+        track("a")
+
+        report(ABORT)
+
+        assertEquals(listOf("a abort"), outcomes)
+    }
+
+    @Test
+    fun removedRequestIsNotCompleted() {
+        val pending = track("a")
+
+        assertTrue(tracker.remove(pending))
+        assertFalse(tracker.remove(pending))
+        assertFalse(report(COMPLETE))
+
+        assertEquals(emptyList<String>(), outcomes)
+    }
+
+    @Test
+    fun completedRequestCannotBeRemoved() {
+        val pending = track("a")
+        report(START)
+        report(COMPLETE)
+
+        assertFalse(tracker.remove(pending))
+    }
+
+    @Test
+    fun completionCancelsTimeout() {
+        val pending = track("a")
+        val timeout = newTimeout()
+        pending.cancelOnDone(timeout)
+
+        report(START)
+        report(COMPLETE)
+
+        assertTrue(timeout.isCancelled)
+    }
+
+    @Test
+    fun removalCancelsTimeout() {
+        val pending = track("a")
+        val timeout = newTimeout()
+        pending.cancelOnDone(timeout)
+
+        tracker.remove(pending)
+
+        assertTrue(timeout.isCancelled)
+    }
+
+    @Test
+    fun timeoutOfCompletedRequestIsCancelledRightAway() {
+        val pending = track("a")
+        report(ABORT)
+        val timeout = newTimeout()
+
+        pending.cancelOnDone(timeout)
+
+        assertTrue(timeout.isCancelled)
+    }
+
+    @Test
+    fun lateStatusOfTimedOutGoToDoesNotCompleteNewerRequest() {
+        val first = track("a")
+        report(START)
+        tracker.remove(first)
+        track("b")
+
+        assertTrue(report(COMPLETE))
+        assertEquals(emptyList<String>(), outcomes)
+
+        report(START)
+        report(COMPLETE)
+        assertEquals(listOf("b complete"), outcomes)
+    }
+
+    @Test
+    fun abortOfSupersededGoToOnlyCompletesItsRequest() {
+        track("a")
+        report(START)
+        track("b")
+
+        report(ABORT)
+        assertEquals(listOf("a abort"), outcomes)
+
+        report(START)
+        report(COMPLETE)
+        assertEquals(listOf("a abort", "b complete"), outcomes)
+    }
+
+    @Test
+    fun newerRequestTakesFinalStatusOnceLateOneArrived() {
+        val first = track("a")
+        report(START)
+        tracker.remove(first)
+        report(ABORT)
+        track("b")
+
+        report(ABORT)
+
+        assertEquals(listOf("b abort"), outcomes)
+    }
+}
@@ -0,0 +1,204 @@
+package com.robotemi.sdk.navigation
+
+import com.robotemi.sdk.ipc.IpcCallback
+import com.robotemi.sdk.listeners.OnGoToLocationStatusChangedListener.Companion.ABORT
+import com.robotemi.sdk.listeners.OnGoToLocationStatusChangedListener.Companion.COMPLETE
+import com.robotemi.sdk.listeners.OnPatrolListener
+import com.robotemi.sdk.model.GoToStatusModel
+import com.robotemi.sdk.navigation.PatrolLeg.Outcome
+import com.robotemi.sdk.testing.DIRECT_EXECUTOR
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.TimeoutException
+
+class PatrolRunTest {
+
+    private class GoToRequest(
+        val location: String,
+        val timeoutMillis: Long,
+        val callback: IpcCallback<GoToStatusModel>
+    )
+
+    private val requests = ArrayList<GoToRequest>()
+
+    private val legs = ArrayList<PatrolLeg>()
+
+    private var finished: Pair<PatrolStats, Boolean>? = null
+
+    private var stopCount = 0
+
+    private var nowMillis = 0L
+
+    private val listener = object : OnPatrolListener {
+        override fun onLegFinished(leg: PatrolLeg) {
+            legs.add(leg)
+        }
+
+        override fun onPatrolFinished(stats: PatrolStats, isCancelled: Boolean) {
+            assertNull(finished)
+            finished = stats to isCancelled
+        }
+    }
+
+    private fun start(
+        vararg locations: String,
+        abortPolicy: PatrolAbortPolicy = PatrolAbortPolicy.RETRY,
+        maxRetries: Int = 1
+    ): PatrolRun {
+        val run = PatrolRun(
+            locations.toList(),
+            LEG_TIMEOUT_MILLIS,
+            abortPolicy,
+            maxRetries,
+            listener,
+            DIRECT_EXECUTOR,
+            { location, timeoutMillis, callback ->
+                requests.add(GoToRequest(location, timeoutMillis, callback))
+            },
+            { stopCount++ },
+            { nowMillis }
+        )
+        run.start()
+        return run
+    }
+
+    private fun report(status: String, request: GoToRequest = requests.last()) {
+        request.callback.onResult(GoToStatusModel(request.location, status, 0, ""))
+    }
+
+    @Test
+    fun legsRunInOrder() {
+        val run = start("a", "b", "c")
+
+        assertEquals(listOf("a"), requests.map { it.location })
+        report(COMPLETE)
+        report(COMPLETE)
+        report(COMPLETE)
+
+        assertEquals(listOf("a", "b", "c"), requests.map { it.location })
+        assertEquals(listOf(0, 1, 2), legs.map { it.index })
+        assertTrue(legs.all { it.outcome == Outcome.COMPLETED && it.reason == null })
+        assertEquals(LEG_TIMEOUT_MILLIS, requests[0].timeoutMillis)
+        assertFalse(finished!!.second)
+        assertFalse(run.isRunning)
+    }
+
+    @Test
+    fun retryPolicyRetriesThenSkips() {
+        start("a", "b", maxRetries = 1)
+
+        report(ABORT)
+        report(ABORT)
+        report(COMPLETE)
+
+        assertEquals(listOf("a", "a", "b"), requests.map { it.location })
+        assertEquals(
+            listOf(Outcome.RETRIED, Outcome.SKIPPED, Outcome.COMPLETED),
+            legs.map { it.outcome }
+        )
+        assertEquals(listOf(0, 1, 0), legs.map { it.attempt })
+        val stats = finished!!.first
+        assertEquals(1, stats.legsCompleted)
+        assertEquals(1, stats.legsSkipped)
+        assertEquals(1, stats.retries)
+    }
+
+    @Test
+    fun skipPolicyMovesOn() {
+        start("a", "b", abortPolicy = PatrolAbortPolicy.SKIP)
+
+        report(ABORT)
+        report(COMPLETE)
+
+        assertEquals(listOf("a", "b"), requests.map { it.location })
+        assertEquals(listOf(Outcome.SKIPPED, Outcome.COMPLETED), legs.map { it.outcome })
+    }
+
+    @Test
+    fun stopPolicyEndsPatrol() {
+        val run = start("a", "b", abortPolicy = PatrolAbortPolicy.STOP)
+
+        report(ABORT)
+
+        assertEquals(listOf("a"), requests.map { it.location })
+        assertEquals(listOf(Outcome.FAILED), legs.map { it.outcome })
+        assertFalse(finished!!.second)
+        assertFalse(run.isRunning)
+        assertEquals(0, stopCount)
+    }
+
+    @Test
+    fun failedRequestCountsAsAbort() {
+        start("a", "b", abortPolicy = PatrolAbortPolicy.SKIP)
+
+        val error = TimeoutException("goTo(a) did not finish")
+        requests.last().callback.onError(error)
+
+        assertEquals(Outcome.SKIPPED, legs[0].outcome)
+        assertEquals(error.toString(), legs[0].reason)
+        assertEquals("b", requests.last().location)
+    }
+
+    @Test
+    fun cancelStopsRobotAndIgnoresLateOutcome() {
+        val run = start("a", "b")
+
+        run.cancel()
+        run.cancel()
+        report(COMPLETE)
+
+        assertEquals(1, stopCount)
+        assertTrue(finished!!.second)
+        assertEquals(1, requests.size)
+        assertEquals(0, legs.size)
+    }
+
+    @Test
+    fun lateOutcomeOfEarlierLegIsIgnored() {
+        start("a", "b", "c")
+        val first = requests.last()
+        report(COMPLETE, first)
+
+        report(ABORT, first)
+
+        assertEquals(listOf("a", "b"), requests.map { it.location })
+        assertEquals(1, legs.size)
+    }
+
+    @Test
+    fun statsMeasureElapsedTime() {
+        val run = start("a", "b")
+        nowMillis = 1_000
+        report(COMPLETE)
+
+        assertEquals(1_000L, legs[0].durationMillis)
+        assertEquals(1_000L, run.stats.elapsedMillis)
+        assertEquals(3_600.0, run.stats.legsPerHour, 0.0)
+
+        nowMillis = 4_000
+        report(COMPLETE)
+        nowMillis = 10_000
+
+        assertEquals(3_000L, legs[1].durationMillis)
+        val stats = finished!!.first
+        assertEquals(4_000L, stats.elapsedMillis)
+        assertEquals(1_800.0, stats.legsPerHour, 0.0)
+        assertEquals(stats, run.stats)
+    }
+
+    @Test
+    fun emptyRouteFinishesRightAway() {
+        val run = start()
+
+        assertEquals(0, requests.size)
+        assertEquals(PatrolStats(0, 0, 0, 0, 0.0), finished!!.first)
+        assertFalse(run.isRunning)
+    }
+
+    private companion object {
+        const val LEG_TIMEOUT_MILLIS = 60_000L
+    }
+}
@@ -0,0 +1,75 @@
+package com.robotemi.sdk.state
+
+import com.robotemi.sdk.UserInfo
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class ContactDirectoryTest {
+
+    @Test
+    fun updateDuringDownloadSurvivesIt() {
+        lateinit var directory: ContactDirectory
+        directory = ContactDirectory {
+            // The launcher pushes a rename while the list it already serialized is in flight.
+            directory.update(UserInfo("1", "Renamed", null, 0))
+            listOf(UserInfo("1", "Original", null, 0), UserInfo("2", "Other", null, 0))
+        }
+
+        assertEquals("Renamed", directory.get("1")?.name)
+        assertEquals(1, directory.findByNamePrefix("ren").size)
+        assertEquals(0, directory.findByNamePrefix("orig").size)
+        assertEquals(2, directory.size)
+    }
+
+    @Test
+    fun updatesDuringFailedDownloadAreDropped() {
+        var isReachable = false
+        lateinit var directory: ContactDirectory
+        directory = ContactDirectory {
+            if (isReachable) {
+                listOf(UserInfo("1", "Fetched", null, 0))
+            } else {
+                directory.update(UserInfo("1", "Stale", null, 0))
+                null
+            }
+        }
+
+        assertEquals(null, directory.get("1"))
+        isReachable = true
+        assertEquals("Fetched", directory.get("1")?.name)
+    }
+
+    @Test
+    fun concurrentLookupWaitsForDownload() {
+        val downloading = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        var downloads = 0
+        val directory = ContactDirectory {
+            downloads++
+            downloading.countDown()
+            release.await()
+            listOf(UserInfo("1", "Fetched", null, 0))
+        }
+        val threads = Executors.newCachedThreadPool()
+        try {
+            val first = threads.submit<UserInfo?> { directory.get("1") }
+            downloading.await()
+            val second = threads.submit<UserInfo?> { directory.get("1") }
+
+            // Give the second caller the chance to return early with the empty copy.
+            Thread.sleep(50)
+            assertFalse(second.isDone)
+            release.countDown()
+
+            assertEquals("Fetched", first.get(5, TimeUnit.SECONDS)?.name)
+            assertEquals("Fetched", second.get(5, TimeUnit.SECONDS)?.name)
+            assertEquals(1, downloads)
+        } finally {
+            threads.shutdownNow()
+        }
+    }
+}
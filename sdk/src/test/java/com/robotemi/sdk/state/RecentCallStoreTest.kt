@@ -0,0 +1,152 @@
+package com.robotemi.sdk.state
+
+import com.robotemi.sdk.model.RecentCallModel
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class RecentCallStoreTest {
+
+    /**
+     * Launcher call history answering `getRecentCallsSince` like a current launcher unless
+     * [supportsIncremental] is cleared.
+     */
+    private class FakeHistory {
+
+        var calls = listOf<RecentCallModel>()
+
+        var isReachable = true
+
+        var supportsIncremental = true
+
+        val requests = ArrayList<Long?>()
+
+        fun fetch(sinceMillis: Long?): List<RecentCallModel>? {
+            synchronized(requests) {
+                requests.add(sinceMillis)
+            }
+            if (!isReachable) {
+                return null
+            }
+            if (sinceMillis == null) {
+                return calls
+            }
+            if (!supportsIncremental) {
+                return emptyList()
+            }
+            return calls.filter { it.timestamp!! >= sinceMillis }
+        }
+    }
+
+    private val history = FakeHistory()
+
+    private val store = RecentCallStore(history::fetch)
+
+    private val threads = Executors.newCachedThreadPool()
+
+    @After
+    fun tearDown() {
+        threads.shutdownNow()
+    }
+
+    @Test
+    fun firstQueryLoadsWholeHistory() {
+        history.calls = listOf(call("a", 100), call("b", 200), call("c", 300))
+
+        assertEquals(listOf("c", "b"), store.last(2).map { it.sessionId })
+        assertEquals(listOf("a", "b"), store.between(100, 300).map { it.sessionId })
+        assertEquals(listOf<Long?>(null), history.requests)
+    }
+
+    @Test
+    fun upToDateCopyIsNotFetchedAgain() {
+        history.calls = listOf(call("a", 100))
+        store.sync()
+
+        store.get("a")
+        store.last(1)
+
+        assertEquals(1, history.requests.size)
+    }
+
+    @Test
+    fun incrementalSyncMergesNewerCalls() {
+        history.calls = listOf(call("a", 100), call("b", 200))
+        store.sync()
+        history.calls = listOf(call("a", 100), call("b", 200), call("c", 300), call("d", 400))
+
+        store.markStale()
+
+        assertEquals(listOf("d", "c", "b", "a"), store.last(10).map { it.sessionId })
+        assertEquals(listOf<Long?>(null, 200L), history.requests)
+        assertEquals(4, store.size)
+    }
+
+    @Test
+    fun incrementalSyncReplacesChangedCall() {
+        history.calls = listOf(call("a", 100), call("b", 200))
+        store.sync()
+        history.calls = listOf(call("a", 100), call("b", 200, callType = 1))
+
+        store.markStale()
+
+        assertEquals(1, store.get("b")!!.callType)
+        assertEquals(2, store.size)
+    }
+
+    @Test
+    fun emptyIncrementalReplyFallsBackToWholeHistory() {
+        history.calls = listOf(call("a", 100), call("b", 200))
+        store.sync()
+        history.supportsIncremental = false
+        history.calls = listOf(call("c", 300))
+
+        store.markStale()
+
+        assertEquals(listOf("c"), store.last(10).map { it.sessionId })
+        assertEquals(listOf<Long?>(null, 200L, null), history.requests)
+    }
+
+    @Test
+    fun failedSyncIsRetried() {
+        history.isReachable = false
+        assertEquals(0, store.size)
+
+        history.isReachable = true
+        history.calls = listOf(call("a", 100))
+        assertEquals(1, store.size)
+    }
+
+    @Test
+    fun concurrentQueryWaitsForFetchInProgress() {
+        val fetching = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        val slowStore = RecentCallStore { sinceMillis ->
+            fetching.countDown()
+            release.await()
+            history.fetch(sinceMillis)
+        }
+        history.calls = listOf(call("a", 100), call("b", 200))
+
+        val first = threads.submit<Int> { slowStore.size }
+        fetching.await()
+        val second = threads.submit<Int> { slowStore.size }
+
+        // Give the second caller the chance to return early with the empty copy.
+        Thread.sleep(50)
+        assertFalse(second.isDone)
+        release.countDown()
+
+        assertEquals(2, first.get(5, TimeUnit.SECONDS))
+        assertEquals(2, second.get(5, TimeUnit.SECONDS))
+        assertEquals(1, history.requests.size)
+    }
+
+    private fun call(sessionId: String, timestamp: Long, callType: Int = 0): RecentCallModel {
+        return RecentCallModel("user-$sessionId", timestamp, sessionId, callType)
+    }
+}
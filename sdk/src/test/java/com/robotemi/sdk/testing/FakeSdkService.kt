@@ -0,0 +1,106 @@
+package com.robotemi.sdk.testing
+
+import com.robotemi.sdk.ISdkService
+import com.robotemi.sdk.ISdkServiceAsyncCallback
+import com.robotemi.sdk.ISdkServiceCallback
+import java.lang.reflect.Method
+import java.lang.reflect.Proxy
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * In-memory launcher implementing the real [ISdkService] interface, so tests exercise `Robot`
+ * exactly as it talks to the launcher, without Binder.
+ *
+ * Every call counts as one transaction and is recorded by method name. Unless [answer] was
+ * given for it, a method replies like an old launcher that does not know it: `false`, `0` or
+ * `null`. The callbacks passed to `register` and `registerAsync` and the latest callback
+ * interest mask are captured.
+ */
+internal class FakeSdkService {
+
+    private val answers = ConcurrentHashMap<String, (Array<out Any?>) -> Any?>()
+
+    private val recordedCalls = ArrayList<String>()
+
+    /**
+     * What `registerAsync` answers, `false` standing for a launcher predating it.
+     */
+    @Volatile
+    var supportsAsyncCallbacks = true
+
+    @Volatile
+    var callback: ISdkServiceCallback? = null
+        private set
+
+    @Volatile
+    var asyncCallback: ISdkServiceAsyncCallback? = null
+        private set
+
+    /**
+     * Last mask sent through `setCallbackInterest`, `null` if none was sent.
+     */
+    @Volatile
+    var callbackInterest: Long? = null
+        private set
+
+    val service = Proxy.newProxyInstance(
+        ISdkService::class.java.classLoader,
+        arrayOf(ISdkService::class.java)
+    ) { proxy, method, args ->
+        when (method.name) {
+            "equals" -> proxy === args?.get(0)
+            "hashCode" -> System.identityHashCode(proxy)
+            "toString" -> "FakeSdkService"
+            else -> transact(method, args ?: emptyArray())
+        }
+    } as ISdkService
+
+    /**
+     * Names of the methods called so far, in call order.
+     */
+    val calls: List<String>
+        get() = synchronized(recordedCalls) { ArrayList(recordedCalls) }
+
+    val transactionCount: Int
+        get() = synchronized(recordedCalls) { recordedCalls.size }
+
+    fun count(method: String): Int {
+        return synchronized(recordedCalls) { recordedCalls.count { it == method } }
+    }
+
+    fun clearCalls() {
+        synchronized(recordedCalls) { recordedCalls.clear() }
+    }
+
+    /**
+     * Reply to [method], the name of the Java method such as `getSerialNumber`, with [reply].
+     */
+    fun answer(method: String, reply: (Array<out Any?>) -> Any?) {
+        answers[method] = reply
+    }
+
+    private fun transact(method: Method, args: Array<out Any?>): Any? {
+        synchronized(recordedCalls) { recordedCalls.add(method.name) }
+        when (method.name) {
+            "register" -> callback = args[1] as ISdkServiceCallback?
+            "registerAsync" -> {
+                asyncCallback = args[1] as ISdkServiceAsyncCallback?
+                return supportsAsyncCallbacks
+            }
+            "setCallbackInterest" -> callbackInterest = args[0] as Long
+        }
+        answers[method.name]?.let { return it(args) }
+        return defaultReply(method.returnType)
+    }
+
+    private fun defaultReply(type: Class<*>): Any? {
+        return when (type) {
+            java.lang.Boolean.TYPE -> false
+            java.lang.Integer.TYPE -> 0
+            java.lang.Long.TYPE -> 0L
+            java.lang.Float.TYPE -> 0f
+            java.lang.Double.TYPE -> 0.0
+            else -> null
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.robotemi.sdk.testing
+
+import android.content.pm.ApplicationInfo
+import com.robotemi.sdk.Robot
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
+
+internal val DIRECT_EXECUTOR = Executor { it.run() }
+
+/**
+ * A [Robot] not bound to any Android context, connected to nothing yet.
+ */
+internal fun newTestRobot(): Robot {
+    return Robot(ApplicationInfo().apply { packageName = TEST_PACKAGE_NAME })
+}
+
+internal const val TEST_PACKAGE_NAME = "com.robotemi.sdk.test"
+
+/**
+ * Print a figure measured by a benchmark test when run with `-PprintBenchmarks`, so normal
+ * test runs stay quiet.
+ */
+internal fun reportBenchmark(line: String) {
+    if (java.lang.Boolean.getBoolean("printBenchmarks")) {
+        println(line)
+    }
+}
+
+/**
+ * Wait for work running on another thread, failing the test after [timeoutMillis].
+ */
+internal fun awaitCondition(timeoutMillis: Long = 5_000, condition: () -> Boolean) {
+    val deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis)
+    while (!condition()) {
+        if (System.nanoTime() > deadline) {
+            throw AssertionError("Condition not met within $timeoutMillis ms")
+        }
+        Thread.sleep(1)
+    }
+}